@@ -0,0 +1,132 @@
+package de.hpi.extractor;
+
+import java.util.Arrays;
+
+/**
+ * Estimates the number of distinct values in a stream with a fixed amount of memory. The values
+ * are passed as 64 bit hashes.
+ *
+ * Small sets are counted exactly: the hashes are kept in a sorted array, until the array would
+ * take as much memory as the registers of the sketch. Most relations in a corpus have only a few
+ * distinct arguments, so that they take little memory and their counts are exact.
+ */
+public class HyperLogLog {
+
+    public static final int DEFAULT_PRECISION = 10;
+
+    private final int precision;
+    // the hashes, while the set is small, null afterwards
+    private long[] hashes = new long[2];
+    private int numberOfHashes = 0;
+    // the registers of the sketch, null while the set is small
+    private byte[] registers = null;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision the number of bits of the hash, which select a register; the sketch has
+     *                  2^precision registers and a standard error of about 1.04 / sqrt(2^precision)
+     */
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 16) {
+            throw new IllegalArgumentException("precision not in [4, 16]: " + precision);
+        }
+        this.precision = precision;
+    }
+
+    /**
+     * Adds the given hash.
+     * @param hash the 64 bit hash of a value
+     */
+    public void offer(long hash) {
+        if (registers != null) {
+            offerToRegisters(hash);
+            return;
+        }
+
+        int i = Arrays.binarySearch(hashes, 0, numberOfHashes, hash);
+        if (i >= 0) {
+            return;
+        }
+        int insertionPoint = -i - 1;
+        if (numberOfHashes == hashes.length) {
+            // 8 bytes per hash, 1 byte per register
+            if (hashes.length * 8 >= (1 << precision)) {
+                toRegisters();
+                offerToRegisters(hash);
+                return;
+            }
+            hashes = Arrays.copyOf(hashes, hashes.length * 2);
+        }
+        System.arraycopy(hashes, insertionPoint, hashes, insertionPoint + 1,
+                         numberOfHashes - insertionPoint);
+        hashes[insertionPoint] = hash;
+        numberOfHashes++;
+    }
+
+    /**
+     * @return the estimated number of distinct hashes, exact for small sets
+     */
+    public long cardinality() {
+        if (registers == null) {
+            return numberOfHashes;
+        }
+
+        int m = registers.length;
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = getAlpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting is more precise for small cardinalities
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    /**
+     * @return true, if the hashes are still counted exactly
+     */
+    public boolean isExact() {
+        return registers == null;
+    }
+
+    private void toRegisters() {
+        registers = new byte[1 << precision];
+        for (int i = 0; i < numberOfHashes; i++) {
+            offerToRegisters(hashes[i]);
+        }
+        hashes = null;
+        numberOfHashes = 0;
+    }
+
+    private void offerToRegisters(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // position of the first 1 bit in the remaining bits
+        long rest = hash << precision;
+        int rank = rest == 0 ? 64 - precision + 1 : Long.numberOfLeadingZeros(rest) + 1;
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    private static double getAlpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package de.hpi.extractor;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable dictionary of normalized relations and the number of distinct arguments, which
+ * they take in a large corpus. The relations are kept as sorted UTF-8 bytes in a single array
+ * together with their counts, so that one loaded dictionary is small and can answer any minimum
+ * frequency. The dictionary can be shared by several threads.
+ */
+public class RelationDictionary {
+
+    private final byte[] bytes;
+    // offset of each relation in the bytes, the last entry is the length of the bytes
+    private final int[] offsets;
+    private final int[] counts;
+
+    private RelationDictionary(byte[] bytes, int[] offsets, int[] counts) {
+        this.bytes = bytes;
+        this.offsets = offsets;
+        this.counts = counts;
+    }
+
+    /**
+     * Reads a relation dictionary in the tab-delimited format (#arguments, relation). If a
+     * relation occurs several times, its highest count is kept.
+     * @param in the relation dictionary
+     * @return the dictionary
+     * @throws IOException if the relation dictionary could not be read
+     */
+    public static RelationDictionary read(InputStream in) throws IOException {
+        Map<String, Integer> relations = new HashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+
+        int lineNum = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNum++;
+            String[] fields = line.split("\t");
+            if (fields.length != 2) {
+                System.err.println("Could not read line " + lineNum + ": '" + line + "'");
+                continue;
+            }
+            relations.merge(fields[1], Integer.parseInt(fields[0]), Math::max);
+        }
+        return build(relations);
+    }
+
+    /**
+     * @param relations the relations and their number of distinct arguments
+     * @return the dictionary
+     */
+    public static RelationDictionary build(Map<String, Integer> relations) {
+        List<byte[]> keys = new ArrayList<>(relations.size());
+        for (String relation : relations.keySet()) {
+            keys.add(relation.getBytes(StandardCharsets.UTF_8));
+        }
+        keys.sort(RelationDictionary::compare);
+
+        int numberOfBytes = 0;
+        for (byte[] key : keys) {
+            numberOfBytes += key.length;
+        }
+
+        byte[] bytes = new byte[numberOfBytes];
+        int[] offsets = new int[keys.size() + 1];
+        int[] counts = new int[keys.size()];
+        int offset = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] key = keys.get(i);
+            System.arraycopy(key, 0, bytes, offset, key.length);
+            offsets[i] = offset;
+            counts[i] = relations.get(new String(key, StandardCharsets.UTF_8));
+            offset += key.length;
+        }
+        offsets[keys.size()] = offset;
+        return new RelationDictionary(bytes, offsets, counts);
+    }
+
+    /**
+     * @param relation the normalized relation
+     * @return the number of distinct arguments of the relation, 0 if the relation is unknown
+     */
+    public int getFrequency(String relation) {
+        int i = find(relation.getBytes(StandardCharsets.UTF_8));
+        return i < 0 ? 0 : counts[i];
+    }
+
+    /**
+     * @param relation the normalized relation
+     * @param minFreq  the minimum number of distinct arguments
+     * @return true, if the relation has at least the given number of distinct arguments
+     */
+    public boolean contains(String relation, int minFreq) {
+        int i = find(relation.getBytes(StandardCharsets.UTF_8));
+        return i >= 0 && counts[i] >= minFreq;
+    }
+
+    /**
+     * @return the number of relations in the dictionary
+     */
+    public int size() {
+        return counts.length;
+    }
+
+    /**
+     * Returns an unmodifiable view of the relations, which have at least the given number of
+     * distinct arguments. The view does not copy the relations.
+     * @param minFreq the minimum number of distinct arguments
+     * @return the relations
+     */
+    public Set<String> getRelations(final int minFreq) {
+        return new AbstractSet<String>() {
+            private int size = -1;
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && RelationDictionary.this.contains((String) o, minFreq);
+            }
+
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int next = advance(0);
+
+                    private int advance(int i) {
+                        while (i < counts.length && counts[i] < minFreq) {
+                            i++;
+                        }
+                        return i;
+                    }
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < counts.length;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        String relation = getRelation(next);
+                        next = advance(next + 1);
+                        return relation;
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                if (size < 0) {
+                    int n = 0;
+                    for (int count : counts) {
+                        if (count >= minFreq) {
+                            n++;
+                        }
+                    }
+                    size = n;
+                }
+                return size;
+            }
+        };
+    }
+
+    private String getRelation(int i) {
+        return new String(bytes, offsets[i], offsets[i + 1] - offsets[i], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the index of the key or -1, if the dictionary does not contain the key
+     */
+    private int find(byte[] key) {
+        int low = 0;
+        int high = counts.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the relation at the given index with the key by their unsigned byte values.
+     */
+    private int compare(int i, byte[] key) {
+        int start = offsets[i];
+        int length = offsets[i + 1] - start;
+        int n = Math.min(length, key.length);
+        for (int j = 0; j < n; j++) {
+            int cmp = Integer.compare(bytes[start + j] & 0xFF, key[j] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    /**
+     * Compares two byte arrays by their unsigned byte values.
+     */
+    private static int compare(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+}
@@ -0,0 +1,241 @@
+package de.hpi.extractor;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import de.hpi.nlp.extraction.chunking.ChunkedBinaryExtraction;
+import de.hpi.nlp.extraction.dependency_parse_tree.TreeBinaryExtraction;
+import de.hpi.normalization.VerbalRelationNormalizer;
+import de.hpi.util.DepConIE;
+import de.hpi.util.Extractor;
+import de.hpi.util.GermanReVerb;
+import de.hpi.util.ReVerb;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Builds a relation dictionary from the extractions of a corpus. The relations are normalized in
+ * the same way as by the dictionary filters, and the distinct second arguments of each relation
+ * are counted by a {@link HyperLogLog} sketch. The memory per relation is bounded, so that the
+ * extractions can be streamed through the builder.
+ *
+ * The dictionary is written in the tab-delimited format (#arg2s, relation) and gzipped, like
+ * <code>rel_dict_de.txt.gz</code> and <code>dep_rel_dict_de.txt.gz</code>.
+ */
+public class RelationDictionaryBuilder {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final int precision;
+    private final Map<String, HyperLogLog> relations = new HashMap<>();
+    private final HashFunction hashFunction = Hashing.murmur3_128();
+
+    // the same normalization as NormalizedRelationDictionaryFilter and DepRelationDictionaryFilter
+    private final VerbalRelationNormalizer chunkedNormalizer =
+        new VerbalRelationNormalizer(true, true, false);
+    private final VerbalRelationNormalizer treeNormalizer =
+        new VerbalRelationNormalizer(true, true, true, true);
+
+    public RelationDictionaryBuilder() {
+        this(HyperLogLog.DEFAULT_PRECISION);
+    }
+
+    /**
+     * @param precision the precision of the sketches, see {@link HyperLogLog#HyperLogLog(int)}
+     */
+    public RelationDictionaryBuilder(int precision) {
+        this.precision = precision;
+    }
+
+    /**
+     * Builds a relation dictionary from a file with one sentence per line.
+     * Usage: RelationDictionaryBuilder &lt;ReVerb|GermanReVerb|DepConIE&gt; &lt;sentences.txt&gt; &lt;dict.txt.gz&gt;
+     * @param args the extractor, the input and the output file
+     * @throws IOException if the files could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("Usage: RelationDictionaryBuilder <ReVerb|GermanReVerb|DepConIE> "
+                               + "<sentences.txt> <dict.txt.gz>");
+            return;
+        }
+
+        RelationDictionaryBuilder builder = new RelationDictionaryBuilder();
+        // the extractors must not filter the relations by an existing dictionary
+        switch (args[0]) {
+            case "ReVerb":
+                builder.addChunked(new ReVerb(false, 0, true), args[1]);
+                break;
+            case "GermanReVerb":
+                builder.addChunked(new GermanReVerb(false, 0, true, true, true, true, true), args[1]);
+                break;
+            case "DepConIE":
+                try (DepConIE depConIE = new DepConIE(false, 0, false, false, false)) {
+                    builder.addTrees(depConIE, args[1]);
+                }
+                break;
+            default:
+                System.out.println("Unknown extractor: " + args[0]);
+                return;
+        }
+
+        try (OutputStream out = new FileOutputStream(args[2])) {
+            builder.write(out);
+        }
+    }
+
+    private void addChunked(Extractor<?, ChunkedBinaryExtraction> extractor, String file)
+        throws IOException {
+        try (BufferedReader reader = open(file)) {
+            List<String> batch;
+            while (!(batch = readBatch(reader)).isEmpty()) {
+                for (Iterable<ChunkedBinaryExtraction> extrs : extractor.extractRelationsFromStrings(batch).values()) {
+                    for (ChunkedBinaryExtraction extr : extrs) {
+                        add(extr);
+                    }
+                }
+            }
+        }
+    }
+
+    private void addTrees(Extractor<?, TreeBinaryExtraction> extractor, String file)
+        throws IOException {
+        try (BufferedReader reader = open(file)) {
+            List<String> batch;
+            while (!(batch = readBatch(reader)).isEmpty()) {
+                for (Iterable<TreeBinaryExtraction> extrs : extractor.extractRelationsFromStrings(batch).values()) {
+                    for (TreeBinaryExtraction extr : extrs) {
+                        add(extr);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds an extraction of ReVerb or German ReVerb.
+     * @param extr the extraction
+     */
+    public synchronized void add(ChunkedBinaryExtraction extr) {
+        add(chunkedNormalizer.normalizeField(extr.getRelation()).toString(),
+            extr.getArgument2().getText());
+    }
+
+    /**
+     * Adds an extraction of Dep ConIE.
+     * @param extr the extraction
+     */
+    public synchronized void add(TreeBinaryExtraction extr) {
+        add(treeNormalizer.normalizeField(extr.getRel()).toString(), extr.getArg2().toString());
+    }
+
+    /**
+     * Adds a relation and its second argument.
+     * @param relation the normalized relation
+     * @param arg2     the second argument
+     */
+    public synchronized void add(String relation, String arg2) {
+        if (relation.isEmpty()) {
+            return;
+        }
+        HyperLogLog sketch = relations.get(relation);
+        if (sketch == null) {
+            sketch = new HyperLogLog(precision);
+            relations.put(relation, sketch);
+        }
+        sketch.offer(hashFunction.hashString(normalizeArgument(arg2), Charsets.UTF_8).asLong());
+    }
+
+    /**
+     * @param relation the normalized relation
+     * @return the estimated number of distinct second arguments of the relation
+     */
+    public synchronized long getFrequency(String relation) {
+        HyperLogLog sketch = relations.get(relation);
+        return sketch == null ? 0 : sketch.cardinality();
+    }
+
+    /**
+     * @return the number of relations
+     */
+    public synchronized int size() {
+        return relations.size();
+    }
+
+    /**
+     * @return the relation dictionary
+     */
+    public synchronized RelationDictionary build() {
+        Map<String, Integer> counts = new HashMap<>(relations.size());
+        for (Map.Entry<String, HyperLogLog> entry : relations.entrySet()) {
+            counts.put(entry.getKey(), (int) Math.min(entry.getValue().cardinality(), Integer.MAX_VALUE));
+        }
+        return RelationDictionary.build(counts);
+    }
+
+    /**
+     * Writes the relations in the tab-delimited format (#arg2s, relation), sorted by the number
+     * of distinct second arguments, and gzips them.
+     * @param out the output stream, which is not closed
+     * @throws IOException if the dictionary could not be written
+     */
+    public synchronized void write(OutputStream out) throws IOException {
+        List<Map.Entry<String, Long>> entries = new ArrayList<>(relations.size());
+        for (Map.Entry<String, HyperLogLog> entry : relations.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue().cardinality()));
+        }
+        entries.sort((a, b) -> {
+            int cmp = Long.compare(b.getValue(), a.getValue());
+            return cmp != 0 ? cmp : a.getKey().compareTo(b.getKey());
+        });
+
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(gzip, Charsets.UTF_8));
+        for (Map.Entry<String, Long> entry : entries) {
+            writer.write(entry.getValue() + "\t" + entry.getKey() + "\n");
+        }
+        writer.flush();
+        gzip.finish();
+    }
+
+    /**
+     * The arguments are compared case-insensitively and without redundant whitespace.
+     */
+    static String normalizeArgument(String arg) {
+        return arg.trim().replaceAll("\\s+", " ").toLowerCase();
+    }
+
+    /**
+     * Reads the next sentences of a file with one sentence per line, so that the extractors can
+     * process many sentences with one call of the external tools.
+     * @return the sentences, an empty list at the end of the file
+     */
+    private static List<String> readBatch(BufferedReader reader) throws IOException {
+        List<String> batch = new ArrayList<>(BATCH_SIZE);
+        String line;
+        while (batch.size() < BATCH_SIZE && (line = reader.readLine()) != null) {
+            if (!line.trim().isEmpty()) {
+                batch.add(line.trim());
+            }
+        }
+        return batch;
+    }
+
+    private static BufferedReader open(String file) throws IOException {
+        return new BufferedReader(new InputStreamReader(new FileInputStream(file), Charsets.UTF_8));
+    }
+}
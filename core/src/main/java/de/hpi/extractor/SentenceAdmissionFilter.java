@@ -0,0 +1,100 @@
+package de.hpi.extractor;
+
+import de.hpi.nlp.ThreadLocalPosTagger;
+import de.hpi.util.DefaultObjects;
+import opennlp.tools.postag.POSTagger;
+import opennlp.tools.tokenize.Tokenizer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A cheap filter, which is applied to the sentences before they are chunked or parsed by an
+ * external tool. Sentences from web pages, e.g. menus, lists or fragments in other languages,
+ * often yield no relations. A sentence is admitted, if most of its tokens are words and if the
+ * OpenNLP POS tagger finds a finite verb.
+ */
+public class SentenceAdmissionFilter extends FilterMapper<String> {
+
+    public static final double DEFAULT_MIN_WORD_RATIO = 0.5;
+
+    private static final Set<String> FINITE_VERB_TAGS = new HashSet<>(Arrays.asList(
+        "VVFIN", "VAFIN", "VMFIN", "VVIMP", "VAIMP"));
+
+    private final Tokenizer tokenizer;
+    private final POSTagger posTagger;
+    private final double minWordRatio;
+
+    /**
+     * Constructs a new filter with the default tokenizer and the shared POS tagger.
+     * @throws IOException if the POS tagger model could not be read
+     */
+    public SentenceAdmissionFilter() throws IOException {
+        this(DefaultObjects.getDefaultTokenizer(), DefaultObjects.getSharedPosTagger(),
+             DEFAULT_MIN_WORD_RATIO);
+    }
+
+    /**
+     * Constructs a new filter.
+     * @param tokenizer    the tokenizer
+     * @param posTagger    the POS tagger, null if the sentences should not be checked for a
+     *                     finite verb
+     * @param minWordRatio the minimum ratio of tokens, which consist of letters
+     */
+    public SentenceAdmissionFilter(Tokenizer tokenizer, POSTagger posTagger, double minWordRatio) {
+        this.tokenizer = tokenizer;
+        this.posTagger = posTagger;
+        this.minWordRatio = minWordRatio;
+    }
+
+    /**
+     * Returns true, if the sentence has enough words and a finite verb.
+     */
+    @Override
+    public boolean doFilter(String sentence) {
+        String[] tokens = tokenizer.tokenize(sentence);
+        if (tokens.length == 0 || getWordRatio(tokens) < minWordRatio) {
+            return false;
+        }
+        if (posTagger == null) {
+            return true;
+        }
+
+        String[] posTags = ThreadLocalPosTagger.tag(posTagger, tokens);
+        for (String posTag : posTags) {
+            if (FINITE_VERB_TAGS.contains(posTag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param tokens the tokens
+     * @return the ratio of tokens, which consist of letters and hyphens only
+     */
+    static double getWordRatio(String[] tokens) {
+        int words = 0;
+        for (String token : tokens) {
+            if (isWord(token)) {
+                words++;
+            }
+        }
+        return (double) words / tokens.length;
+    }
+
+    private static boolean isWord(String token) {
+        boolean hasLetter = false;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (Character.isLetter(c)) {
+                hasLetter = true;
+            } else if (c != '-') {
+                return false;
+            }
+        }
+        return hasLetter;
+    }
+}
@@ -1,25 +1,34 @@
 package de.hpi.extractor.chunking.mapper;
 
 import de.hpi.extractor.MaxMapper;
+import de.hpi.nlp.chunking.ChunkedSentence;
 import de.hpi.nlp.extraction.chunking.ChunkedArgumentExtraction;
 import de.hpi.nlp.extraction.chunking.ChunkedExtraction;
-import de.hpi.nlp.morphology.Morphy;
-import de.hpi.nlp.morphology.ZmorgeMorphology;
+import de.hpi.nlp.morphology.MorphologyLexicon;
+import de.hpi.nlp.morphology.Morphology;
 import de.hpi.util.DefaultObjects;
+import edu.washington.cs.knowitall.commonlib.Range;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.NoSuchElementException;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * A mapper object for <code>ChunkedArgumentExtraction</code> objects that returns the object,
  * which is in nominative, and closest to the relation.
+ *
+ * The case of the nouns is determined once per sentence and kept in the case layer of the
+ * sentence, see {@link ChunkedSentence#getNominatives()}.
  */
 public class ClosestNominativeArgumentMapper extends
                                              MaxMapper<Integer, ChunkedArgumentExtraction> {
 
-    private ZmorgeMorphology zmorge;
-    private Morphy morphy;
+    private Morphology zmorge;
+    private MorphologyLexicon morphy;
 
     ClosestNominativeArgumentMapper() {
         this(false);
@@ -32,7 +41,7 @@ public class ClosestNominativeArgumentMapper extends
         } catch (IOException e) {
             System.out.println("Could not load Morphy!");
         }
-        zmorge = DefaultObjects.getZmorge();
+        zmorge = DefaultObjects.getZmorgeMorphology();
     }
 
     @Override
@@ -41,31 +50,14 @@ public class ClosestNominativeArgumentMapper extends
      */
     public Integer doValueMap(ChunkedArgumentExtraction arg) {
         if (morphy != null) {
-
-//            long start = System.nanoTime();
-            boolean isNominative = true;
-            List<String> posTags = arg.getPosTags();
-            for (int i = 0; i < posTags.size(); i++) {
-                // We are only interested in nouns
-                if (posTags.get(i).equals("NN") || posTags.get(i).equals("NE")) {
-                    String token = arg.getToken(i);
-                    try {
-                        // Use Morphy to determine the case of the token
-                        if (! morphy.isNominative(token)) {
-                            isNominative = false;
-                        }
-                    } catch (NoSuchElementException e) {
-                        // if the Morphy lexicon does not contain the token, use zmorge
-                        isNominative = zmorge.isNominative(token);
-                    }
+            // all nouns of the argument must be in nominative
+            boolean[] nominatives = getNominatives(arg.getSentence());
+            Range range = arg.getRange();
+            for (int i = range.getStart(); i < range.getStart() + range.getLength(); i++) {
+                if (!nominatives[i]) {
+                    return -Integer.MAX_VALUE;
                 }
             }
-//            long end = System.nanoTime();
-//            System.out.println("IsNominative took: " + ((end - start) / 1000000) + "ms");
-
-            if (!isNominative) {
-                return -Integer.MAX_VALUE;
-            }
         }
 
         ChunkedExtraction relation = arg.getRelation();
@@ -75,4 +67,48 @@ public class ClosestNominativeArgumentMapper extends
         return -distance; // return -distance since we want the minimum distance
     }
 
+    /**
+     * Returns the case layer of the sentence and computes it, if the sentence has none yet. The
+     * layer is shared by all candidate arguments of all relations of the sentence.
+     * @param sentence the sentence
+     * @return the case layer, see {@link ChunkedSentence#getNominatives()}
+     */
+    boolean[] getNominatives(ChunkedSentence sentence) {
+        boolean[] nominatives = sentence.getNominatives();
+        if (nominatives != null) {
+            return nominatives;
+        }
+
+        nominatives = new boolean[sentence.getLength()];
+        Arrays.fill(nominatives, true);
+
+        // Use Morphy to determine the case of the nouns
+        List<Integer> unknownIndices = new ArrayList<>();
+        Set<String> unknownTokens = new LinkedHashSet<>();
+        for (int i = 0; i < sentence.getLength(); i++) {
+            // We are only interested in nouns
+            String posTag = sentence.getPosTag(i);
+            if (posTag.equals("NN") || posTag.equals("NE")) {
+                String token = sentence.getToken(i);
+                if (morphy.contains(token)) {
+                    nominatives[i] = morphy.isNominative(token);
+                } else {
+                    unknownIndices.add(i);
+                    unknownTokens.add(token);
+                }
+            }
+        }
+
+        // look up all nouns, which are not in the Morphy lexicon, at once
+        if (!unknownTokens.isEmpty()) {
+            Map<String, Boolean> zmorgeNominative = zmorge.isNominative(unknownTokens);
+            for (int i : unknownIndices) {
+                nominatives[i] = Boolean.TRUE.equals(zmorgeNominative.get(sentence.getToken(i)));
+            }
+        }
+
+        sentence.setNominatives(nominatives);
+        return nominatives;
+    }
+
 }
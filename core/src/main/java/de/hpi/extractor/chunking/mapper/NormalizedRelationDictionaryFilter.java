@@ -5,18 +5,19 @@ import de.hpi.nlp.extraction.chunking.ChunkedRelationExtraction;
 import de.hpi.normalization.NormalizedField;
 import de.hpi.normalization.VerbalRelationNormalizer;
 
-import java.util.HashSet;
+import java.util.Set;
 
 /**
  * A class used to filter out any relations whose normalized form does not appear in the given
- * dictionary. Relation strings are normalized using the VerbalRelationNormalizer class.
+ * dictionary. Relation strings are normalized using the VerbalRelationNormalizer class, which
+ * reads the lemmas from the lemma layer of the sentence, if it is present.
  *
  * @author afader
  */
 public class NormalizedRelationDictionaryFilter extends
                                                 FilterMapper<ChunkedRelationExtraction> {
 
-    private HashSet<String> relations;
+    private Set<String> relations;
     private VerbalRelationNormalizer normalizer;
 
     /**
@@ -25,7 +26,7 @@ public class NormalizedRelationDictionaryFilter extends
      * the string.
      * @param relations the relations contained in the dictionary
      */
-    public NormalizedRelationDictionaryFilter(HashSet<String> relations) {
+    public NormalizedRelationDictionaryFilter(Set<String> relations) {
         this.relations = relations;
         normalizer = new VerbalRelationNormalizer(true, true, false);
     }
@@ -1,16 +1,12 @@
 package de.hpi.extractor.chunking.mapper;
 
 import de.hpi.extractor.FilterMapper;
+import de.hpi.extractor.RelationDictionary;
 import de.hpi.nlp.extraction.chunking.ChunkedRelationExtraction;
 import de.hpi.util.DefaultObjects;
 
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.HashSet;
-import java.util.regex.Pattern;
-import java.util.zip.GZIPInputStream;
 
 /**
  * Filters relations based on how many distinct arg2 values it takes in a large corpus. These
@@ -26,7 +22,6 @@ import java.util.zip.GZIPInputStream;
 public class ReVerbRelationDictionaryFilter extends
                                             FilterMapper<ChunkedRelationExtraction> {
 
-    private static final String relationDictFile = "rel_dict_de.txt.gz";
     public static final int defaultMinFreq = 20;
     private NormalizedRelationDictionaryFilter filter;
 
@@ -39,18 +34,22 @@ public class ReVerbRelationDictionaryFilter extends
      * @throws IOException if the relation dictionary could not be read
      */
     public ReVerbRelationDictionaryFilter(InputStream in, int minFreq) throws IOException {
-        init(in, minFreq);
+        filter = new NormalizedRelationDictionaryFilter(
+            RelationDictionary.read(in).getRelations(minFreq));
     }
 
     /**
      * Constructs a new dictionary filter using the data in the file <code>freq_rel.txt.gz</code>,
-     * which is found on the classpath.
+     * which is found on the classpath. The dictionary is read only once and shared with the other
+     * filters.
      *
      * @param minFreq the minimum number of distinct arg2s a relation must have to be included.
      * @throws IOException if the relation dictionary could not be read
      */
     public ReVerbRelationDictionaryFilter(int minFreq) throws IOException {
-        init(getDefaultRelationStream(), minFreq);
+        filter = new NormalizedRelationDictionaryFilter(
+            DefaultObjects.getRelationDictionary(DefaultObjects.relationDictionaryFile)
+                .getRelations(minFreq));
     }
 
     /**
@@ -59,40 +58,7 @@ public class ReVerbRelationDictionaryFilter extends
      * @throws IOException if the relation dictionary could not be read
      */
     public ReVerbRelationDictionaryFilter() throws IOException {
-        init(getDefaultRelationStream(), defaultMinFreq);
-    }
-
-    private InputStream getDefaultRelationStream() throws IOException {
-        InputStream in = DefaultObjects.getResourceAsStream(relationDictFile);
-//        InputStream in = ReVerbRelationDictionaryFilter.class.getClassLoader().getResourceAsStream(relationDictFile);
-        if (in != null) {
-            return new GZIPInputStream(in);
-        } else {
-            throw new IOException("Could not load file " + relationDictFile
-                                  + " from classpath.");
-        }
-    }
-
-    private void init(InputStream in, int minFreq) throws IOException {
-        String line;
-        HashSet<String> relations = new HashSet<String>();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(in));
-        Pattern delim = Pattern.compile("\t");
-        int lineNum = 0;
-        while ((line = reader.readLine()) != null) {
-            lineNum++;
-            String[] fields = delim.split(line);
-            if (fields.length != 2) {
-                System.err.println("Could not read line " + lineNum + ": '"
-                                   + line + "'");
-                continue;
-            }
-            int freq = Integer.parseInt(fields[0]);
-            if (freq >= minFreq) {
-                relations.add(fields[1]);
-            }
-        }
-        filter = new NormalizedRelationDictionaryFilter(relations);
+        this(defaultMinFreq);
     }
 
     @Override
@@ -6,12 +6,9 @@ import de.hpi.normalization.TreeNormalizedField;
 import de.hpi.normalization.VerbalRelationNormalizer;
 import de.hpi.util.DefaultObjects;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.HashSet;
-import java.util.zip.GZIPInputStream;
+import java.util.Collections;
+import java.util.Set;
 
 /**
  * Filter representing the lexical constraint.
@@ -19,23 +16,32 @@ import java.util.zip.GZIPInputStream;
 public class DepRelationDictionaryFilter extends
                                                 FilterMapper<TreeBinaryExtraction> {
 
-    private String relationDictFile = "dep_rel_dict_de.txt.gz";
-    private static int defaultFreq = 20;
+    public static final int defaultMinFreq = 20;
 
-    private HashSet<String> relations;
+    private Set<String> relations;
     private VerbalRelationNormalizer normalizer;
 
     public DepRelationDictionaryFilter() {
-        this(defaultFreq);
+        this(defaultMinFreq);
     }
 
     public DepRelationDictionaryFilter(int minFreq) {
+        this(minFreq, true);
+    }
+
+    /**
+     * @param minFreq       the minimum number of distinct arguments a relation needs to be valid
+     * @param useNodeLemmas normalize the relations with the lemmas of the parser? Otherwise, the
+     *                      relations are lemmatized by the mate-tools lemmatizer.
+     */
+    public DepRelationDictionaryFilter(int minFreq, boolean useNodeLemmas) {
         try {
-            this.relations = getRelations(minFreq);
+            this.relations = DefaultObjects.getRelationDictionary(
+                DefaultObjects.depRelationDictionaryFile).getRelations(minFreq);
         } catch (IOException e) {
-            this.relations = new HashSet<>();
+            this.relations = Collections.emptySet();
         }
-        normalizer = new VerbalRelationNormalizer(true, true, true);
+        normalizer = new VerbalRelationNormalizer(true, true, true, useNodeLemmas);
     }
 
     /**
@@ -45,48 +51,4 @@ public class DepRelationDictionaryFilter extends
         TreeNormalizedField normField = normalizer.normalizeField(extr.getRel());
         return relations.contains(normField.toString());
     }
-
-    /**
-     * Reads the relation dictionary file and returns the relations, which have a frequency above the given min
-     * frequency.
-     * @param minFreq min frequency
-     * @return a set of relations
-     * @throws IOException if the relation file could not be read
-     */
-    private HashSet<String> getRelations(int minFreq) throws IOException {
-        HashSet<String> relations = new HashSet<>();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(getInputStream()));
-
-        int lineNum = 0;
-        String line;
-
-        while ((line = reader.readLine()) != null) {
-            lineNum++;
-            String[] fields = line.split("\t");
-            if (fields.length != 2) {
-                System.err.println("Could not read line " + lineNum + ": '" + line + "'");
-                continue;
-            }
-            int freq = Integer.parseInt(fields[0]);
-            if (freq >= minFreq) {
-                relations.add(fields[1]);
-            }
-        }
-
-        return relations;
-    }
-
-    /**
-     * @return the input stream of the relation dictionary file
-     * @throws IOException if the relation dictionary file could not be found/load
-     */
-    private InputStream getInputStream() throws IOException {
-        InputStream in = DefaultObjects.getResourceAsStream(relationDictFile);
-        if (in != null) {
-            return new GZIPInputStream(in);
-        } else {
-            throw new IOException("Could not load file " + relationDictFile
-                    + " from classpath.");
-        }
-    }
 }
@@ -0,0 +1,166 @@
+package de.hpi.nlp;
+
+import de.hpi.util.DefaultObjects;
+import opennlp.tools.postag.POSTagger;
+import opennlp.tools.tokenize.Tokenizer;
+import opennlp.tools.util.Span;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits very long sentences into clauses, which can be parsed independently. The parse time of
+ * a dependency parser grows steeply with the length of a sentence.
+ *
+ * Sentences, which have more tokens than the maximum length, are cut at safe boundaries:
+ * <ul>
+ * <li>semicolons and colons</li>
+ * <li>coordinating conjunctions (und, oder, aber, sondern) between two finite verbs</li>
+ * <li>'denn' and 'doch' between two finite verbs, if they follow a comma; otherwise they are
+ * mostly adverbs, e.g. 'Er kam doch nicht.'</li>
+ * </ul>
+ * The boundary tokens and a comma in front of a conjunction are not part of the clauses.
+ */
+public class ClauseSplitter {
+
+    public static final int DEFAULT_MAX_TOKENS = 50;
+
+    private static final Set<String> SEPARATORS = new HashSet<>(Arrays.asList(";", ":"));
+    private static final Set<String> CONJUNCTIONS = new HashSet<>(Arrays.asList(
+        "und", "oder", "aber", "sondern"));
+    // conjunctions, which are only a boundary after a comma
+    private static final Set<String> COMMA_CONJUNCTIONS = new HashSet<>(Arrays.asList(
+        "denn", "doch"));
+    private static final Set<String> FINITE_VERB_TAGS = new HashSet<>(Arrays.asList(
+        "VVFIN", "VAFIN", "VMFIN", "VVIMP", "VAIMP"));
+
+    private final Tokenizer tokenizer;
+    private final POSTagger posTagger;
+    private final int maxTokens;
+
+    /**
+     * Constructs a new splitter with the default tokenizer and the shared POS tagger.
+     * @param maxTokens the maximum number of tokens of a sentence, which is not split
+     * @throws IOException if the POS tagger model could not be read
+     */
+    public ClauseSplitter(int maxTokens) throws IOException {
+        this(DefaultObjects.getDefaultTokenizer(), DefaultObjects.getSharedPosTagger(), maxTokens);
+    }
+
+    /**
+     * Constructs a new splitter.
+     * @param tokenizer the tokenizer
+     * @param posTagger the POS tagger, null if the sentences should only be cut at semicolons
+     *                  and colons
+     * @param maxTokens the maximum number of tokens of a sentence, which is not split
+     */
+    public ClauseSplitter(Tokenizer tokenizer, POSTagger posTagger, int maxTokens) {
+        if (maxTokens < 1) {
+            throw new IllegalArgumentException("maxTokens < 1: " + maxTokens);
+        }
+        this.tokenizer = tokenizer;
+        this.posTagger = posTagger;
+        this.maxTokens = maxTokens;
+    }
+
+    /**
+     * Splits the given sentence into clauses, if it is too long.
+     * @param sentence the sentence
+     * @return the clauses, or the sentence itself, if it is not too long or has no safe boundary
+     */
+    public List<String> split(String sentence) {
+        Span[] spans = tokenizer.tokenizePos(sentence);
+        List<String> clauses = new ArrayList<>();
+        if (spans.length <= maxTokens) {
+            clauses.add(sentence);
+            return clauses;
+        }
+
+        String[] tokens = Span.spansToStrings(spans, sentence);
+        String[] posTags = null;
+        if (posTagger != null) {
+            posTags = ThreadLocalPosTagger.tag(posTagger, tokens);
+        }
+
+        int start = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            if (isSeparator(spans, tokens, i)) {
+                addClause(clauses, sentence, spans, tokens, start, i);
+                start = i + 1;
+            } else if (posTags != null && isConjunction(tokens, i)
+                       && hasFiniteVerb(posTags, start, i)
+                       && hasFiniteVerb(posTags, i + 1, nextBoundary(spans, tokens, i + 1))) {
+                addClause(clauses, sentence, spans, tokens, start, i);
+                start = i + 1;
+            }
+        }
+        addClause(clauses, sentence, spans, tokens, start, tokens.length);
+
+        if (clauses.isEmpty()) {
+            clauses.add(sentence);
+        }
+        return clauses;
+    }
+
+    /**
+     * @return the maximum number of tokens of a sentence, which is not split
+     */
+    public int getMaxTokens() {
+        return maxTokens;
+    }
+
+    private static void addClause(List<String> clauses, String sentence, Span[] spans,
+                                  String[] tokens, int start, int end) {
+        // a comma in front of the boundary is not part of the clause
+        while (end > start && tokens[end - 1].equals(",")) {
+            end--;
+        }
+        if (end > start) {
+            clauses.add(sentence.substring(spans[start].getStart(), spans[end - 1].getEnd()));
+        }
+    }
+
+    private static boolean hasFiniteVerb(String[] posTags, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (FINITE_VERB_TAGS.contains(posTags[i])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A semicolon or colon is no boundary, if it is part of a token like '14:00' or 'http://'.
+     */
+    private static boolean isSeparator(Span[] spans, String[] tokens, int i) {
+        if (!SEPARATORS.contains(tokens[i])) {
+            return false;
+        }
+        boolean attachedLeft = i > 0 && spans[i - 1].getEnd() == spans[i].getStart();
+        boolean attachedRight = i + 1 < spans.length && spans[i].getEnd() == spans[i + 1].getStart();
+        return !(attachedLeft && attachedRight);
+    }
+
+    private static boolean isConjunction(String[] tokens, int i) {
+        String token = tokens[i].toLowerCase();
+        return CONJUNCTIONS.contains(token)
+               || (COMMA_CONJUNCTIONS.contains(token) && i > 0 && tokens[i - 1].equals(","));
+    }
+
+    /**
+     * The right side of a conjunction ends at the next separator or conjunction, so that
+     * coordinated nouns, e.g. 'Äpfel und Birnen', are not split.
+     */
+    private static int nextBoundary(Span[] spans, String[] tokens, int start) {
+        for (int i = start; i < tokens.length; i++) {
+            if (isSeparator(spans, tokens, i) || isConjunction(tokens, i)) {
+                return i;
+            }
+        }
+        return tokens.length;
+    }
+}
@@ -0,0 +1,297 @@
+package de.hpi.nlp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * A long-running external process, which reads its input line by line from stdin and writes its
+ * results line by line to stdout.
+ *
+ * Each request is followed by a delimiter line. The process has to pass this line through to its
+ * output or answer it with a known output delimiter line, so that the end of the output of a
+ * request can be found. Programs, which buffer their
+ * output, can be flushed by writing a number of padding lines after the delimiter. The output of
+ * the padding is skipped before the output of the next request is read.
+ *
+ * The process is started on the first request and restarted, if it terminated unexpectedly or
+ * exceeded the deadline of a request. The process runs in its own {@link ProcessGroup}, so that
+ * all processes, which it started, are stopped with it.
+ */
+public class CoProcess implements Closeable {
+
+    // marks the end of the output stream in the queue of output lines
+    private static final String END_OF_STREAM = new String("<end-of-stream>");
+
+    private final String[] command;
+    private final String delimiter;
+    private final String outputDelimiter;
+    private final String padding;
+    private final int paddingLines;
+
+    // the time to wait for the output thread of a stopped process in milliseconds
+    private static final long JOIN_TIMEOUT = 1000;
+
+    private ProcessGroup process;
+    private BufferedWriter stdin;
+    private BlockingQueue<String> stdout;
+    private Thread outputReader;
+    private int pendingPaddingLines;
+
+    /**
+     * Constructs a new co-process, which does not need padding to flush its output.
+     * @param command   the command to execute
+     * @param delimiter the delimiter line, which marks the end of a request
+     */
+    public CoProcess(String[] command, String delimiter) {
+        this(command, delimiter, null, 0);
+    }
+
+    /**
+     * Constructs a new co-process.
+     * @param command      the command to execute
+     * @param delimiter    the delimiter line, which marks the end of a request
+     * @param padding      the line, which is written after the delimiter to flush the output of
+     *                     the process
+     * @param paddingLines the number of padding lines to write after each request
+     */
+    public CoProcess(String[] command, String delimiter, String padding, int paddingLines) {
+        this(command, delimiter, delimiter, padding, paddingLines);
+    }
+
+    /**
+     * Constructs a new co-process, which answers the delimiter line with a different line.
+     * @param command         the command to execute
+     * @param delimiter       the delimiter line, which marks the end of a request
+     * @param outputDelimiter the output line of the process for the delimiter line, which marks
+     *                        the end of the output of a request
+     * @param padding         the line, which is written after the delimiter to flush the output
+     *                        of the process
+     * @param paddingLines    the number of padding lines to write after each request
+     */
+    public CoProcess(String[] command, String delimiter, String outputDelimiter, String padding,
+                     int paddingLines) {
+        this.command = command;
+        this.delimiter = delimiter;
+        this.outputDelimiter = outputDelimiter;
+        this.padding = padding;
+        this.paddingLines = padding == null ? 0 : paddingLines;
+        this.process = null;
+        this.pendingPaddingLines = 0;
+    }
+
+    /**
+     * Sends the given lines to the process and returns the output lines of the process until the
+     * delimiter line.
+     * @param lines the input lines
+     * @return the output lines
+     * @throws IOException if the process could not be started or terminated unexpectedly
+     */
+    public List<String> call(List<String> lines) throws IOException {
+        return call(lines, 0);
+    }
+
+    /**
+     * Sends the given lines to the process and returns the output lines of the process until the
+     * delimiter line. The process is killed, if the output is not complete within the deadline.
+     * @param lines   the input lines
+     * @param timeout the deadline in milliseconds, 0 for no deadline
+     * @return the output lines
+     * @throws ProcessTimeoutException if the output was not complete within the deadline
+     * @throws IOException if the process could not be started or terminated unexpectedly
+     */
+    public List<String> call(List<String> lines, long timeout) throws IOException {
+        return call(lines, timeout, null);
+    }
+
+    /**
+     * Sends the given lines to the process and returns the output lines of the process until the
+     * delimiter line. The process is killed, if the output is not complete within the deadline.
+     * The deadline is reset, whenever the process writes a progress line.
+     * @param lines    the input lines
+     * @param timeout  the deadline in milliseconds after the request and after each progress
+     *                 line, 0 for no deadline
+     * @param progress matches the progress lines of the output, null, if the deadline should not
+     *                 be reset
+     * @return the output lines
+     * @throws ProcessTimeoutException if the output was not complete within the deadline, the
+     * exception carries the output lines before the timeout
+     * @throws IOException if the process could not be started or terminated unexpectedly
+     */
+    public synchronized List<String> call(List<String> lines, long timeout,
+                                          Predicate<String> progress) throws IOException {
+        long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+        if (!isAlive()) {
+            start();
+        }
+
+        List<String> output = new ArrayList<>();
+        try {
+            for (String line : lines) {
+                stdin.write(line);
+                stdin.newLine();
+            }
+            stdin.write(delimiter);
+            stdin.newLine();
+            for (int i = 0; i < paddingLines; i++) {
+                stdin.write(padding);
+                stdin.newLine();
+            }
+            stdin.flush();
+
+            // skip the output of the padding of the previous request
+            while (pendingPaddingLines > 0) {
+                if (readLine(deadline).equals(padding)) {
+                    pendingPaddingLines--;
+                }
+            }
+            pendingPaddingLines = paddingLines;
+
+            String line;
+            while (!(line = readLine(deadline)).equals(outputDelimiter)) {
+                output.add(line);
+                if (deadline > 0 && progress != null && progress.test(line)) {
+                    deadline = System.currentTimeMillis() + timeout;
+                }
+            }
+            return output;
+        } catch (ProcessTimeoutException e) {
+            kill();
+            throw new ProcessTimeoutException(e.getMessage(), output);
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Sends a single line to the process and returns the output lines of the process until the
+     * delimiter line.
+     * @param line the input line
+     * @return the output lines
+     * @throws IOException if the process could not be started or terminated unexpectedly
+     */
+    public List<String> call(String line) throws IOException {
+        return call(line, 0);
+    }
+
+    /**
+     * Sends a single line to the process and returns the output lines of the process until the
+     * delimiter line. The process is killed, if the output is not complete within the deadline.
+     * @param line    the input line
+     * @param timeout the deadline in milliseconds, 0 for no deadline
+     * @return the output lines
+     * @throws ProcessTimeoutException if the output was not complete within the deadline
+     * @throws IOException if the process could not be started or terminated unexpectedly
+     */
+    public List<String> call(String line, long timeout) throws IOException {
+        List<String> lines = new ArrayList<>();
+        lines.add(line);
+        return call(lines, timeout);
+    }
+
+    /**
+     * @return true, if the process is running, false otherwise
+     */
+    public synchronized boolean isAlive() {
+        return process != null && process.isAlive();
+    }
+
+    /**
+     * Stops the process.
+     */
+    @Override
+    public synchronized void close() {
+        if (process == null) {
+            return;
+        }
+        try {
+            stdin.close();
+        } catch (IOException e) {
+            // the process is destroyed anyway
+        }
+        process.destroy();
+        reset();
+    }
+
+    /**
+     * Kills the process, e.g. if it hangs.
+     */
+    private void kill() {
+        process.destroyForcibly();
+        reset();
+    }
+
+    private void reset() {
+        try {
+            outputReader.join(JOIN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        process = null;
+        stdin = null;
+        stdout = null;
+        outputReader = null;
+        pendingPaddingLines = 0;
+    }
+
+    private void start() throws IOException {
+        close();
+        process = ProcessGroup.start(command);
+        stdin = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(),
+                                                          StandardCharsets.UTF_8));
+        stdout = new LinkedBlockingQueue<>();
+
+        // The output is read by a separate thread. Otherwise, the process could block on a full
+        // output pipe, while we are still writing the input.
+        BufferedReader reader = process.getReader();
+        BlockingQueue<String> queue = stdout;
+        outputReader = new Thread(() -> {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    queue.add(line);
+                }
+            } catch (IOException e) {
+                // the process was destroyed
+            } finally {
+                queue.add(END_OF_STREAM);
+            }
+        }, "CoProcess " + command[command.length - 1]);
+        outputReader.setDaemon(true);
+        outputReader.start();
+    }
+
+    private String readLine(long deadline) throws IOException {
+        String line;
+        try {
+            if (deadline > 0) {
+                line = stdout.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    throw new ProcessTimeoutException("Process '" + String.join(" ", command)
+                                                      + "' exceeded the deadline of a request");
+                }
+            } else {
+                line = stdout.take();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the output of '"
+                                  + String.join(" ", command) + "'", e);
+        }
+        if (line == END_OF_STREAM) {
+            throw new IOException("Process '" + String.join(" ", command)
+                                  + "' terminated unexpectedly");
+        }
+        return line;
+    }
+}
@@ -0,0 +1,175 @@
+package de.hpi.nlp;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Runs an external process, which reads its input line by line from stdin and writes its results
+ * line by line to stdout.
+ *
+ * The input is written and the output is read by separate threads, so that the process cannot
+ * block on a full pipe. The process and all processes, which it started, are killed, if it does not
+ * finish within its deadline.
+ *
+ * A batch of inputs can be given a progress deadline instead: the clock is reset whenever the
+ * process writes a progress line, e.g. the delimiter after a sentence, so that the deadline only
+ * limits the time for a single input of the batch.
+ */
+public class ExternalProcess {
+
+    // the time to wait for the threads of a killed process in milliseconds
+    private static final long JOIN_TIMEOUT = 1000;
+    // stdbuf is part of GNU coreutils, it is missing e.g. on macOS
+    private static final boolean STDBUF =
+        new File("/usr/bin/stdbuf").canExecute() || new File("/bin/stdbuf").canExecute();
+
+    /**
+     * @return true, if the output of a command can be line buffered by stdbuf
+     */
+    public static boolean isLineBufferingAvailable() {
+        return STDBUF;
+    }
+
+    /**
+     * Makes the given command flush its output after each line, even if it does not write to a
+     * terminal. The command is returned unchanged, if stdbuf is not available.
+     * @param command the command to execute
+     * @return the command run by stdbuf or the command itself
+     */
+    public static String[] lineBuffered(String... command) {
+        if (!STDBUF) {
+            return command;
+        }
+        String[] bufferedCommand = new String[command.length + 2];
+        bufferedCommand[0] = "stdbuf";
+        bufferedCommand[1] = "-oL";
+        System.arraycopy(command, 0, bufferedCommand, 2, command.length);
+        return bufferedCommand;
+    }
+
+    /**
+     * Runs the given command with the given input.
+     * @param command the command to execute
+     * @param input   the input lines
+     * @param timeout the deadline in milliseconds, 0 for no deadline
+     * @return the output lines
+     * @throws ProcessTimeoutException if the process did not finish within the deadline
+     * @throws IOException if the process could not be started or the output could not be read
+     * @throws InterruptedException if the thread got interrupted while waiting for the process
+     */
+    public static List<String> run(String[] command, List<String> input, long timeout)
+        throws IOException, InterruptedException {
+        return run(command, input, timeout, null);
+    }
+
+    /**
+     * Runs the given command with the given input. The deadline is reset, whenever the process
+     * writes a progress line.
+     * @param command  the command to execute
+     * @param input    the input lines
+     * @param timeout  the deadline in milliseconds after the start and after each progress line,
+     *                 0 for no deadline
+     * @param progress matches the progress lines of the output, null, if the deadline should not
+     *                 be reset
+     * @return the output lines
+     * @throws ProcessTimeoutException if the process did not finish within the deadline, the
+     * exception carries the output lines before the timeout
+     * @throws IOException if the process could not be started or the output could not be read
+     * @throws InterruptedException if the thread got interrupted while waiting for the process
+     */
+    public static List<String> run(String[] command, List<String> input, long timeout,
+                                   Predicate<String> progress)
+        throws IOException, InterruptedException {
+        ProcessGroup p = ProcessGroup.start(command);
+
+        BufferedWriter writer = new BufferedWriter(
+            new OutputStreamWriter(p.getOutputStream(), StandardCharsets.UTF_8));
+        Thread inputWriter = new Thread(() -> {
+            try {
+                for (String line : input) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+                writer.close();
+            } catch (IOException e) {
+                // the process terminated, the missing output is detected by the caller
+            }
+        });
+        inputWriter.setDaemon(true);
+        inputWriter.start();
+
+        List<String> output = Collections.synchronizedList(new ArrayList<>());
+        AtomicLong lastProgress = new AtomicLong(System.currentTimeMillis());
+        BufferedReader reader = p.getReader();
+        Thread outputReader = new Thread(() -> {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    output.add(line);
+                    if (progress != null && progress.test(line)) {
+                        lastProgress.set(System.currentTimeMillis());
+                    }
+                }
+            } catch (IOException e) {
+                // the process was killed
+            }
+        });
+        outputReader.setDaemon(true);
+        outputReader.start();
+
+        try {
+            if (timeout > 0) {
+                long remaining;
+                while ((remaining = lastProgress.get() + timeout - System.currentTimeMillis()) > 0) {
+                    if (p.waitFor(remaining)) {
+                        break;
+                    }
+                }
+                if (remaining <= 0) {
+                    kill(p, inputWriter, outputReader);
+                    List<String> partialOutput;
+                    synchronized (output) {
+                        partialOutput = new ArrayList<>(output);
+                    }
+                    throw new ProcessTimeoutException("Process '" + String.join(" ", command)
+                                                      + "' exceeded its deadline of " + timeout + "ms",
+                                                      partialOutput);
+                }
+            } else {
+                p.waitFor();
+            }
+            // the process terminated, read the rest of its output
+            outputReader.join();
+            inputWriter.join();
+        } catch (InterruptedException e) {
+            kill(p, inputWriter, outputReader);
+            throw e;
+        }
+        reader.close();
+
+        return new ArrayList<>(output);
+    }
+
+    /**
+     * Kills the process group and waits a moment for the threads, which read and write the pipes
+     * of the process, so that they do not leak.
+     */
+    private static void kill(ProcessGroup p, Thread inputWriter, Thread outputReader) {
+        p.destroyForcibly();
+        try {
+            outputReader.join(JOIN_TIMEOUT);
+            inputWriter.join(JOIN_TIMEOUT);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package de.hpi.nlp;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Persistent cache for the output of external tools, e.g. the lines of TreeTagger or the ConLL
+ * lines of ParZu. The cache is content-addressed: the key of an entry is the MD5 hash of the tool
+ * version and the normalized input, so that the output of a tool is cached across runs and
+ * becomes invalid, if the tool version changes.
+ *
+ * The cache consists of two files in its directory:
+ * <ul>
+ * <li><code>segment.dat</code>: an append-only file with one record per entry: long key[0], long
+ * key[1], int number of lines, int number of bytes, UTF-8 bytes of the lines separated by '\n'.
+ * </li>
+ * <li><code>index.dat</code>: a memory-mapped hash table with linear probing: int magic,
+ * int capacity, int size, int unused, followed by the slots: long key[0], long key[1], long
+ * offset of the record + 1 (0 marks an empty slot).</li>
+ * </ul>
+ * The record is written before the index entry. If the index is missing, it is rebuilt from the
+ * segment file.
+ */
+public class OutputCache implements Closeable {
+
+    private static final String SEGMENT_FILE = "segment.dat";
+    private static final String INDEX_FILE = "index.dat";
+
+    private static final int MAGIC = 0x4F434348;
+    private static final int HEADER_SIZE = 16;
+    private static final int SLOT_SIZE = 24;
+    private static final int RECORD_HEADER_SIZE = 24;
+    private static final int INITIAL_CAPACITY = 1 << 12;
+    private static final double MAX_LOAD = 0.7;
+
+    private static final Pattern WHITE_SPACE = Pattern.compile("\\s+");
+
+    private final File directory;
+    private final FileChannel segment;
+    private long segmentSize;
+
+    private RandomAccessFile indexFile;
+    private MappedByteBuffer index;
+    private int capacity;
+    private int size;
+
+    /**
+     * Opens the cache in the given directory. The directory is created, if it does not exist.
+     * @param directory the directory of the cache files
+     * @throws IOException if the cache files could not be opened
+     */
+    public OutputCache(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        this.directory = directory;
+        this.segment = new RandomAccessFile(new File(directory, SEGMENT_FILE), "rw").getChannel();
+        this.segmentSize = segment.size();
+
+        File file = new File(directory, INDEX_FILE);
+        if (file.exists() && file.length() >= HEADER_SIZE) {
+            openIndex(file);
+            if (index.getInt(0) != MAGIC) {
+                throw new IOException("Invalid cache index " + file);
+            }
+            capacity = index.getInt(4);
+            size = index.getInt(8);
+        } else {
+            createIndex(file, INITIAL_CAPACITY);
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * Returns the cached output of the given tool for the given input.
+     * @param tool  the tool and its version
+     * @param input the input
+     * @return the output lines or null, if the output is not cached
+     * @throws IOException if the segment file could not be read
+     */
+    public synchronized List<String> get(String tool, String input) throws IOException {
+        long[] key = getKey(tool, input);
+        int slot = findSlot(key[0], key[1]);
+        long offset = index.getLong(HEADER_SIZE + slot * SLOT_SIZE + 16) - 1;
+        if (offset < 0 || offset + RECORD_HEADER_SIZE > segmentSize) {
+            return null;
+        }
+
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        readFully(header, offset);
+        int numberOfLines = header.getInt(16);
+        byte[] bytes = new byte[header.getInt(20)];
+        readFully(ByteBuffer.wrap(bytes), offset + RECORD_HEADER_SIZE);
+        if (numberOfLines == 0) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(Arrays.asList(new String(bytes, StandardCharsets.UTF_8).split("\n", -1)));
+    }
+
+    /**
+     * Caches the output of the given tool for the given input.
+     * @param tool   the tool and its version
+     * @param input  the input
+     * @param output the output lines, which must not contain line breaks
+     * @throws IOException if the cache files could not be written
+     */
+    public synchronized void put(String tool, String input, List<String> output) throws IOException {
+        long[] key = getKey(tool, input);
+        byte[] bytes = String.join("\n", output).getBytes(StandardCharsets.UTF_8);
+
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + bytes.length);
+        record.putLong(key[0]).putLong(key[1]).putInt(output.size()).putInt(bytes.length).put(bytes);
+        record.flip();
+        long offset = segmentSize;
+        while (record.hasRemaining()) {
+            segment.write(record, offset + record.position());
+        }
+        segmentSize += RECORD_HEADER_SIZE + bytes.length;
+
+        addToIndex(key[0], key[1], offset);
+    }
+
+    /**
+     * @return the number of cached outputs
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Normalizes the white space of the given input, so that inputs, which only differ in white
+     * space, share an entry.
+     * @param input the input
+     * @return the normalized input
+     */
+    public static String normalize(String input) {
+        return WHITE_SPACE.matcher(input).replaceAll(" ").trim();
+    }
+
+    /**
+     * Writes the index to the disk and closes the segment file.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        index.force();
+        indexFile.close();
+        segment.close();
+    }
+
+    private static long[] getKey(String tool, String input) {
+        try {
+            MessageDigest md5 = MessageDigest.getInstance("MD5");
+            md5.update(tool.getBytes(StandardCharsets.UTF_8));
+            md5.update((byte) 0);
+            md5.update(normalize(input).getBytes(StandardCharsets.UTF_8));
+            ByteBuffer digest = ByteBuffer.wrap(md5.digest());
+            return new long[]{digest.getLong(0), digest.getLong(8)};
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform supports MD5
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (segment.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Unexpected end of cache segment");
+            }
+        }
+    }
+
+    /**
+     * @return the slot of the given key or the empty slot, where the key has to be inserted
+     */
+    private int findSlot(long key0, long key1) {
+        int slot = (int) ((key0 ^ (key0 >>> 32)) & (capacity - 1));
+        while (true) {
+            int position = HEADER_SIZE + slot * SLOT_SIZE;
+            if (index.getLong(position + 16) == 0
+                || (index.getLong(position) == key0 && index.getLong(position + 8) == key1)) {
+                return slot;
+            }
+            slot = (slot + 1) & (capacity - 1);
+        }
+    }
+
+    private void addToIndex(long key0, long key1, long offset) throws IOException {
+        if (size + 1 > capacity * MAX_LOAD) {
+            grow();
+        }
+        int position = HEADER_SIZE + findSlot(key0, key1) * SLOT_SIZE;
+        if (index.getLong(position + 16) == 0) {
+            size++;
+            index.putInt(8, size);
+        }
+        index.putLong(position, key0);
+        index.putLong(position + 8, key1);
+        index.putLong(position + 16, offset + 1);
+    }
+
+    /**
+     * Doubles the capacity of the index. The new index is written to a temporary file, which
+     * replaces the old index.
+     */
+    private void grow() throws IOException {
+        MappedByteBuffer oldIndex = index;
+        int oldCapacity = capacity;
+        RandomAccessFile oldIndexFile = indexFile;
+
+        File tmp = new File(directory, INDEX_FILE + ".tmp");
+        createIndex(tmp, 2 * oldCapacity);
+        size = 0;
+        for (int slot = 0; slot < oldCapacity; slot++) {
+            int position = HEADER_SIZE + slot * SLOT_SIZE;
+            long offset = oldIndex.getLong(position + 16);
+            if (offset != 0) {
+                addToIndex(oldIndex.getLong(position), oldIndex.getLong(position + 8), offset - 1);
+            }
+        }
+        index.force();
+        oldIndexFile.close();
+        Files.move(tmp.toPath(), new File(directory, INDEX_FILE).toPath(),
+                   StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void createIndex(File file, int capacity) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        raf.setLength(0);
+        raf.setLength(HEADER_SIZE + (long) capacity * SLOT_SIZE);
+        raf.close();
+        openIndex(file);
+        this.capacity = capacity;
+        this.size = 0;
+        index.putInt(0, MAGIC);
+        index.putInt(4, capacity);
+        index.putInt(8, 0);
+    }
+
+    private void openIndex(File file) throws IOException {
+        indexFile = new RandomAccessFile(file, "rw");
+        index = indexFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, indexFile.length());
+    }
+
+    /**
+     * Adds all records of the segment file to the index. Later records replace earlier records
+     * with the same key.
+     */
+    private void rebuildIndex() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+        long offset = 0;
+        while (offset + RECORD_HEADER_SIZE <= segmentSize) {
+            header.clear();
+            readFully(header, offset);
+            long end = offset + RECORD_HEADER_SIZE + header.getInt(20);
+            if (end > segmentSize) {
+                break;
+            }
+            addToIndex(header.getLong(0), header.getLong(8), offset);
+            offset = end;
+        }
+        // drop an incomplete record at the end
+        segmentSize = offset;
+        segment.truncate(offset);
+    }
+}
@@ -0,0 +1,153 @@
+package de.hpi.nlp;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An external process, which runs in its own process group. The external tools are shell
+ * pipelines or scripts, which start further processes. Killing only the direct child would leave
+ * these processes running as orphans, which keep the pipes open. Therefore, the whole group is
+ * killed.
+ *
+ * The command is started by <code>setsid</code>, and a shell prints its process id, which is the
+ * id of the new process group, before it executes the command. Without <code>setsid</code>, only
+ * the direct child is killed.
+ */
+public class ProcessGroup {
+
+    private static final boolean SETSID =
+        new File("/usr/bin/setsid").canExecute() || new File("/bin/setsid").canExecute();
+
+    private final String[] command;
+    private final Process process;
+    private final BufferedReader stdout;
+    // the id of the process group, 0 if the process has no group of its own
+    private final int groupId;
+
+    private ProcessGroup(String[] command, Process process, BufferedReader stdout, int groupId) {
+        this.command = command;
+        this.process = process;
+        this.stdout = stdout;
+        this.groupId = groupId;
+    }
+
+    /**
+     * Starts the given command in a new process group. The error output of the command is
+     * discarded.
+     * @param command the command to execute
+     * @return the process group
+     * @throws IOException if the process could not be started
+     */
+    public static ProcessGroup start(String[] command) throws IOException {
+        String[] groupCommand = command;
+        if (SETSID) {
+            groupCommand = new String[command.length + 5];
+            groupCommand[0] = "setsid";
+            groupCommand[1] = "sh";
+            groupCommand[2] = "-c";
+            groupCommand[3] = "echo $$; exec \"$@\"";
+            groupCommand[4] = "sh";
+            System.arraycopy(command, 0, groupCommand, 5, command.length);
+        }
+
+        ProcessBuilder builder = new ProcessBuilder(groupCommand);
+        // the error output is not needed, but has to be consumed
+        builder.redirectError(new File("/dev/null"));
+        Process process = builder.start();
+        BufferedReader stdout = new BufferedReader(new InputStreamReader(
+            process.getInputStream(), StandardCharsets.UTF_8));
+
+        int groupId = 0;
+        if (SETSID) {
+            String line = stdout.readLine();
+            try {
+                groupId = line == null ? 0 : Integer.parseInt(line.trim());
+            } catch (NumberFormatException e) {
+                process.destroyForcibly();
+                throw new IOException("Could not start '" + String.join(" ", command) + "'");
+            }
+        }
+        return new ProcessGroup(command, process, stdout, groupId);
+    }
+
+    /**
+     * @return the standard input of the command
+     */
+    public OutputStream getOutputStream() {
+        return process.getOutputStream();
+    }
+
+    /**
+     * @return the standard output of the command
+     */
+    public BufferedReader getReader() {
+        return stdout;
+    }
+
+    /**
+     * @return the command
+     */
+    public String[] getCommand() {
+        return command;
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public boolean waitFor(long timeout) throws InterruptedException {
+        return process.waitFor(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    public int waitFor() throws InterruptedException {
+        return process.waitFor();
+    }
+
+    /**
+     * Terminates all processes of the group.
+     */
+    public void destroy() {
+        kill("-TERM");
+        process.destroy();
+    }
+
+    /**
+     * Kills all processes of the group and closes the streams of the command.
+     */
+    public void destroyForcibly() {
+        kill("-KILL");
+        process.destroyForcibly();
+        try {
+            process.getOutputStream().close();
+        } catch (IOException e) {
+            // the process is killed anyway
+        }
+        try {
+            process.getInputStream().close();
+        } catch (IOException e) {
+            // the process is killed anyway
+        }
+    }
+
+    private void kill(String signal) {
+        if (groupId <= 0) {
+            return;
+        }
+        try {
+            Process kill = new ProcessBuilder("kill", signal, "--", "-" + groupId)
+                .redirectErrorStream(true)
+                .redirectOutput(new File("/dev/null"))
+                .start();
+            kill.waitFor(5, TimeUnit.SECONDS);
+        } catch (IOException e) {
+            // the direct child is killed anyway
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
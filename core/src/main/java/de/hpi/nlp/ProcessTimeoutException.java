@@ -0,0 +1,34 @@
+package de.hpi.nlp;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An exception class used for external processes, which did not finish within their deadline.
+ * The exception carries the output lines, which the process wrote before it was killed, so that
+ * the completed part of a batch is not lost.
+ */
+public class ProcessTimeoutException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ArrayList<String> output;
+
+    public ProcessTimeoutException(String message) {
+        this(message, Collections.<String>emptyList());
+    }
+
+    public ProcessTimeoutException(String message, List<String> output) {
+        super(message);
+        this.output = new ArrayList<>(output);
+    }
+
+    /**
+     * @return the output lines of the process before it was killed
+     */
+    public List<String> getOutput() {
+        return Collections.unmodifiableList(output);
+    }
+}
@@ -0,0 +1,57 @@
+package de.hpi.nlp;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of inputs, which made an external tool exceed its deadline. Inputs, which failed
+ * repeatedly, are quarantined and should be skipped, so that a single bad input cannot stall a
+ * batch.
+ */
+public class Quarantine {
+
+    private final int maxFailures;
+    private final Map<String, Integer> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a new quarantine, which quarantines inputs after two failures.
+     */
+    public Quarantine() {
+        this(2);
+    }
+
+    /**
+     * Constructs a new quarantine.
+     * @param maxFailures the number of failures, after which an input is quarantined
+     */
+    public Quarantine(int maxFailures) {
+        if (maxFailures < 1) {
+            throw new IllegalArgumentException("maxFailures < 1: " + maxFailures);
+        }
+        this.maxFailures = maxFailures;
+    }
+
+    /**
+     * Records a failure of the given input.
+     * @param input the input
+     */
+    public void recordFailure(String input) {
+        failures.merge(input, 1, Integer::sum);
+    }
+
+    /**
+     * @param input the input
+     * @return true, if the input is quarantined, false otherwise
+     */
+    public boolean contains(String input) {
+        Integer n = failures.get(input);
+        return n != null && n >= maxFailures;
+    }
+
+    /**
+     * @return the number of quarantined inputs
+     */
+    public int size() {
+        return (int) failures.values().stream().filter(n -> n >= maxFailures).count();
+    }
+}
@@ -0,0 +1,98 @@
+package de.hpi.nlp;
+
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSTagger;
+import opennlp.tools.postag.POSTaggerME;
+import opennlp.tools.util.Sequence;
+
+import java.util.List;
+
+/**
+ * A POS tagger, which can be used by several threads. The OpenNLP {@link POSTaggerME} is not
+ * thread-safe, so that each thread gets its own tagger. All taggers share the same model, which is
+ * read only once, so that a tagger costs little heap.
+ *
+ * The methods, which are deprecated by {@link POSTagger}, are deprecated here as well.
+ */
+public class ThreadLocalPosTagger implements POSTagger {
+
+    private final POSModel model;
+    private final ThreadLocal<POSTaggerME> tagger;
+
+    /**
+     * Constructs a new tagger.
+     * @param model the shared model
+     */
+    public ThreadLocalPosTagger(POSModel model) {
+        this.model = model;
+        this.tagger = ThreadLocal.withInitial(() -> new POSTaggerME(model));
+    }
+
+    /**
+     * Tags the given tokens. Taggers, which are not a {@link ThreadLocalPosTagger}, are
+     * synchronized, because they may be shared by several threads.
+     * @param posTagger the POS tagger
+     * @param tokens    the tokens
+     * @return the POS tags
+     */
+    public static String[] tag(POSTagger posTagger, String[] tokens) {
+        if (posTagger instanceof ThreadLocalPosTagger) {
+            return posTagger.tag(tokens);
+        }
+        synchronized (posTagger) {
+            return posTagger.tag(tokens);
+        }
+    }
+
+    /**
+     * @return the shared model
+     */
+    public POSModel getModel() {
+        return model;
+    }
+
+    /**
+     * @return the tagger of the current thread
+     */
+    public POSTaggerME getTagger() {
+        return tagger.get();
+    }
+
+    @Override
+    @Deprecated
+    public List<String> tag(List<String> sentence) {
+        return tagger.get().tag(sentence);
+    }
+
+    @Override
+    public String[] tag(String[] sentence) {
+        return tagger.get().tag(sentence);
+    }
+
+    @Override
+    public String[] tag(String[] sentence, Object[] additionalContext) {
+        return tagger.get().tag(sentence, additionalContext);
+    }
+
+    @Override
+    @Deprecated
+    public String tag(String sentence) {
+        return tagger.get().tag(sentence);
+    }
+
+    @Override
+    @Deprecated
+    public Sequence[] topKSequences(List<String> sentence) {
+        return tagger.get().topKSequences(sentence);
+    }
+
+    @Override
+    public Sequence[] topKSequences(String[] sentence) {
+        return tagger.get().topKSequences(sentence);
+    }
+
+    @Override
+    public Sequence[] topKSequences(String[] sentence, Object[] additionalContext) {
+        return tagger.get().topKSequences(sentence, additionalContext);
+    }
+}
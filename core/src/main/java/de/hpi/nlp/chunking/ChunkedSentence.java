@@ -32,8 +32,21 @@ public class ChunkedSentence extends BIOLayeredSequence {
      */
     public static final String NP_LAYER = "np";
 
+    /**
+     * The layer name for the lemmas. The layer is optional.
+     */
+    public static final String LEMMA_LAYER = "lemma";
+
+    /**
+     * The lemma of a token, which is unknown to the lemmatizer.
+     */
+    public static final String UNKNOWN_LEMMA = "<unknown>";
+
     // a cache for getTokensAsString
     private String tokensAsString = null;
+    // the case layer, which is computed once by the argument mappers; it is not part of the
+    // layers, so that it does not change the equality of sentences
+    private volatile boolean[] nominatives = null;
 
     protected final ImmutableList<Range> offsets;
 
@@ -447,6 +460,48 @@ public class ChunkedSentence extends BIOLayeredSequence {
         return get(POS_LAYER, i);
     }
 
+    /**
+     * @return true, if this sentence has a lemma layer, false otherwise
+     */
+    public boolean hasLemmas() {
+        return hasLayer(LEMMA_LAYER);
+    }
+
+    /**
+     * @return an unmodifiable list over the lemmas of this sentence, null if this sentence has no
+     * lemma layer.
+     */
+    public ImmutableList<String> getLemmas() {
+        return hasLemmas() ? getLayer(LEMMA_LAYER) : null;
+    }
+
+    /**
+     * @param i the index i
+     * @return the lemma at index i, {@link #UNKNOWN_LEMMA} if the lemma is unknown
+     */
+    public String getLemma(int i) {
+        return get(LEMMA_LAYER, i);
+    }
+
+    /**
+     * @return the case layer, which is true for each token, which can be in nominative or is no
+     * noun, null if the layer was not computed yet
+     */
+    public boolean[] getNominatives() {
+        return nominatives;
+    }
+
+    /**
+     * @param nominatives the case layer, see {@link #getNominatives()}
+     */
+    public void setNominatives(boolean[] nominatives) {
+        if (nominatives != null && nominatives.length != getLength()) {
+            throw new IllegalArgumentException("The case layer has " + nominatives.length
+                                               + " tokens, but the sentence has " + getLength());
+        }
+        this.nominatives = nominatives;
+    }
+
     /**
      * @param i the index i
      * @return the chunk tag at index i
@@ -0,0 +1,156 @@
+package de.hpi.nlp.chunking;
+
+import de.hpi.nlp.ThreadLocalPosTagger;
+import de.hpi.sequence.SequenceException;
+import de.hpi.util.DefaultObjects;
+import edu.washington.cs.knowitall.commonlib.Range;
+import opennlp.tools.chunker.Chunker;
+import opennlp.tools.chunker.ChunkerME;
+import opennlp.tools.chunker.ChunkerModel;
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSTagger;
+import opennlp.tools.tokenize.SimpleTokenizer;
+import opennlp.tools.tokenize.Tokenizer;
+import opennlp.tools.tokenize.TokenizerME;
+import opennlp.tools.tokenize.TokenizerModel;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.regex.Pattern;
+
+/**
+ * A class that combines OpenNLP tokenizer, POS tagger and chunker objects into a single object
+ * that converts String sentences to {@link ChunkedSentence} objects. In contrast to
+ * {@link TreeTaggerSentenceChunker}, no external process is needed.
+ *
+ * The chunker model can be trained on the chunk tags of TreeTagger (NC, VC, PC) or on the
+ * English chunk tags (NP, VP, PP). The chunk tags of TreeTagger are mapped to the English tags.
+ *
+ * The OpenNLP tools are not thread-safe, so that each thread gets its own tokenizer and chunker
+ * over the shared models. The offsets of the tokens are ranges in the concatenation of the tokens,
+ * as in {@link TreeTaggerSentenceChunker}, so that both chunkers can replace each other.
+ */
+public class OpenNlpSentenceChunker implements SentenceChunker {
+
+    private final ThreadLocal<Tokenizer> tokenizer;
+    private final POSTagger posTagger;
+    private final ThreadLocal<Chunker> chunker;
+    // the lock of tools, which are shared by all threads, null if each thread has its own tools
+    private final Object lock;
+    private Pattern convertToSpace = Pattern.compile("\\xa0");
+
+    /**
+     * Constructor of OpenNlpSentenceChunker, which uses the shared default models.
+     * @throws IOException if a model could not be read
+     */
+    public OpenNlpSentenceChunker() throws IOException {
+        this(DefaultObjects.getTokenizerModel(), DefaultObjects.getSharedPosTagger(),
+             DefaultObjects.getChunkerModel());
+    }
+
+    /**
+     * Constructor of OpenNlpSentenceChunker. The streams are not closed.
+     * @param tokenizerModel the OpenNLP tokenizer model
+     * @param posModel the OpenNLP POS tagger model
+     * @param chunkerModel the OpenNLP chunker model
+     * @throws IOException if a model could not be read
+     */
+    public OpenNlpSentenceChunker(InputStream tokenizerModel, InputStream posModel,
+                                  InputStream chunkerModel) throws IOException {
+        this(new TokenizerModel(tokenizerModel), new ThreadLocalPosTagger(new POSModel(posModel)),
+             new ChunkerModel(chunkerModel));
+    }
+
+    /**
+     * Constructor of OpenNlpSentenceChunker
+     * @param tokenizerModel the OpenNLP tokenizer model, null to use the {@link SimpleTokenizer}
+     * @param posTagger the POS tagger, which is synchronized, if it is not a
+     *                  {@link ThreadLocalPosTagger}
+     * @param chunkerModel the OpenNLP chunker model
+     */
+    public OpenNlpSentenceChunker(TokenizerModel tokenizerModel, POSTagger posTagger,
+                                  ChunkerModel chunkerModel) {
+        this.tokenizer = ThreadLocal.withInitial(
+            () -> tokenizerModel == null ? SimpleTokenizer.INSTANCE : new TokenizerME(tokenizerModel));
+        this.posTagger = posTagger;
+        this.chunker = ThreadLocal.withInitial(() -> new ChunkerME(chunkerModel));
+        this.lock = null;
+    }
+
+    /**
+     * Constructor of OpenNlpSentenceChunker. The given tools are shared by all threads, so that
+     * the sentences are chunked one after another.
+     * @param tokenizer the tokenizer
+     * @param posTagger the POS tagger
+     * @param chunker the chunker
+     */
+    public OpenNlpSentenceChunker(Tokenizer tokenizer, POSTagger posTagger, Chunker chunker) {
+        this.tokenizer = ThreadLocal.withInitial(() -> tokenizer);
+        this.posTagger = posTagger;
+        this.chunker = ThreadLocal.withInitial(() -> chunker);
+        this.lock = new Object();
+    }
+
+    @Override
+    public ChunkedSentence chunkSentence(String sent) throws ChunkerException {
+        // OpenNLP cannot handle non-breaking whitespace
+        sent = convertToSpace.matcher(sent).replaceAll(" ");
+
+        try {
+            if (lock == null) {
+                return chunk(sent);
+            }
+            synchronized (lock) {
+                return chunk(sent);
+            }
+        } catch (Exception e) {
+            throw new ChunkerException("Could not process sentence '" + sent + "'", e);
+        }
+    }
+
+    /**
+     * Tokenizes, tags and chunks the given sentence with the tools of the current thread.
+     * @param sent the sentence
+     * @return the chunked sentence
+     * @throws SequenceException if the chunk tags could not be interpreted
+     */
+    private ChunkedSentence chunk(String sent) throws SequenceException {
+        String[] tokens = tokenizer.get().tokenize(sent);
+        String[] posTags = lock == null ? ThreadLocalPosTagger.tag(posTagger, tokens)
+                                        : posTagger.tag(tokens);
+        String[] chunkTags = chunker.get().chunk(tokens, posTags);
+
+        Range[] ranges = new Range[tokens.length];
+        int start = 0;
+        for (int i = 0; i < tokens.length; i++) {
+            ranges[i] = Range.fromInterval(start, start + tokens[i].length());
+            start += tokens[i].length();
+            chunkTags[i] = convertChunkTag(chunkTags[i]);
+        }
+
+        return new ChunkedSentence(ranges, tokens, posTags, chunkTags);
+    }
+
+    /**
+     * Changes the name of a TreeTagger chunk tag so that it matches the English tags.
+     * @param chunkTag the chunk tag, e.g. B-NC
+     * @return the converted chunk tag, e.g. B-NP
+     */
+    public static String convertChunkTag(String chunkTag) {
+        if (chunkTag.length() < 2 || chunkTag.charAt(1) != '-') {
+            return chunkTag;
+        }
+        String prefix = chunkTag.substring(0, 2);
+        switch (chunkTag.substring(2)) {
+            case "NC":
+                return prefix + "NP"; // noun phrase
+            case "VC":
+                return prefix + "VP"; // verb phrase
+            case "PC":
+                return prefix + "PP"; // prepositional phrase
+            default:
+                return chunkTag;
+        }
+    }
+
+}
@@ -1,6 +1,29 @@
 package de.hpi.nlp.chunking;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public interface SentenceChunker {
 
     public ChunkedSentence chunkSentence(String sent) throws ChunkerException;
+
+    /**
+     * Chunks the given sentences. Implementations can override this method to process all
+     * sentences at once.
+     * @param sents the sentences
+     * @return the chunked sentences in the order of the input, <code>null</code> for each sentence,
+     * which could not be processed
+     * @throws ChunkerException if the sentences could not be processed at all
+     */
+    public default List<ChunkedSentence> chunkSentences(List<String> sents) throws ChunkerException {
+        List<ChunkedSentence> chunkedSents = new ArrayList<>(sents.size());
+        for (String sent : sents) {
+            try {
+                chunkedSents.add(chunkSentence(sent));
+            } catch (ChunkerException e) {
+                chunkedSents.add(null);
+            }
+        }
+        return chunkedSents;
+    }
 }
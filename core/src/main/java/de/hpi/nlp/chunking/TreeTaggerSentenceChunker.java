@@ -1,76 +1,371 @@
 package de.hpi.nlp.chunking;
 
+import com.google.common.base.Joiner;
 import edu.washington.cs.knowitall.commonlib.Range;
+import de.hpi.nlp.CoProcess;
+import de.hpi.nlp.ExternalProcess;
+import de.hpi.nlp.OutputCache;
+import de.hpi.nlp.ProcessTimeoutException;
+import de.hpi.nlp.Quarantine;
 import de.hpi.util.DefaultObjects;
 import opennlp.tools.postag.POSTagger;
 
-import java.io.*;
+import java.io.Closeable;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.regex.Pattern;
 
 /**
  * A class that combines OpenNLP POS tagger and Tree Tagger tokenizer and chunker objects into a
  * single object that converts String sentences to {@link ChunkedSentence} objects.
+ *
+ * By default, TreeTagger is started for every sentence. In persistent mode, TreeTagger is kept
+ * running as a co-process and the sentences are streamed to it, separated by an SGML tag, which
+ * TreeTagger passes through to its output.
+ *
+ * TreeTagger is killed, if it exceeds its deadline. Sentences, which exceeded the deadline
+ * repeatedly, are quarantined and not sent to TreeTagger again.
+ *
+ * The output of TreeTagger can be kept in an {@link OutputCache}, so that a sentence is only sent
+ * to TreeTagger, if it was not chunked by the same TreeTagger version before.
  */
-public class TreeTaggerSentenceChunker implements SentenceChunker {
+public class TreeTaggerSentenceChunker implements SentenceChunker, Closeable {
 
     private static final String
         TREETAGGER_HOME = System.getenv("TREETAGGER_HOME");
-    private static final String CHUNK_COMMAND = TREETAGGER_HOME + "cmd/tagger-chunker-german";
+    // The stages of the TreeTagger pipeline buffer their output, if they do not write to a
+    // terminal. stdbuf makes the tree-tagger stages and PERL5OPT the Perl stages flush each line,
+    // so that a sentence passes the pipeline as soon as its delimiter is written. Without stdbuf,
+    // the output of a batch is only complete at the end, and TreeTagger cannot be persistent.
+    private static final String[] CHUNK_COMMAND = ExternalProcess.lineBuffered(
+        "env", "PERL5OPT=-MIO::Handle;STDOUT->autoflush(1)",
+        TREETAGGER_HOME + "cmd/tagger-chunker-german");
 
+    // marks the end of a sentence in the input and output of TreeTagger
+    static final String SENTENCE_DELIMITER = "<sentence-end/>";
+    // the default deadline for chunking a sentence in milliseconds
+    public static final long DEFAULT_TIMEOUT = 30000;
+
+    // null, if the POS tags of TreeTagger are used
     private POSTagger posTagger;
+    private CoProcess treeTagger;
     private Pattern convertToSpace = Pattern.compile("\\xa0");
+    private Pattern lineBreak = Pattern.compile("[\\r\\n]+");
+    private long timeout = DEFAULT_TIMEOUT;
+    private boolean keepLemmas = false;
+    private OutputCache cache = null;
+    private String cacheTool = null;
+    private final Quarantine quarantine = new Quarantine();
 
     public TreeTaggerSentenceChunker() throws IOException {
-        this.posTagger = DefaultObjects.getDefaultPosTagger();
+        this(false);
+    }
+
+    /**
+     * Constructor of TreeTaggerSentenceChunker
+     * @param persistent keep TreeTagger running between sentences?
+     * @throws IOException if the POS tagger model could not be read
+     */
+    public TreeTaggerSentenceChunker(boolean persistent) throws IOException {
+        this(persistent, false);
+    }
+
+    /**
+     * Constructor of TreeTaggerSentenceChunker
+     * @param persistent keep TreeTagger running between sentences? TreeTagger is started for
+     *                   every sentence, if stdbuf is not available.
+     * @param treeTaggerPosTags use the POS tags of TreeTagger instead of tagging the tokens with
+     *                          OpenNLP again? The OpenNLP POS tagger model is not loaded then.
+     * @throws IOException if the POS tagger model could not be read
+     */
+    public TreeTaggerSentenceChunker(boolean persistent, boolean treeTaggerPosTags) throws IOException {
+        if (!treeTaggerPosTags) {
+            this.posTagger = DefaultObjects.getSharedPosTagger();
+        }
+        if (persistent && ExternalProcess.isLineBufferingAvailable()) {
+            this.treeTagger = new CoProcess(CHUNK_COMMAND, SENTENCE_DELIMITER);
+        } else if (persistent) {
+            System.out.println("TreeTagger: stdbuf not found, TreeTagger is started for every sentence");
+        }
     }
 
     @Override
     public ChunkedSentence chunkSentence(String sent) throws ChunkerException {
         // OpenNLP cannot handle non-breaking whitespace
         sent = convertToSpace.matcher(sent).replaceAll(" ");
+        if (quarantine.contains(sent)) {
+            throw new ChunkerException("Sentence '" + sent + "' is quarantined");
+        }
 
         try {
-            String treeTaggerOutput = chunk(sent);
-            return convert(treeTaggerOutput);
+            return convert(chunkLines(sent));
+        } catch (ProcessTimeoutException e) {
+            quarantine.recordFailure(sent);
+            throw new ChunkerException("Timeout for sentence '" + sent + "'", e);
         } catch (Exception e) {
             throw new ChunkerException("Could not process sentence '" + sent + "'", e);
         }
     }
 
 
+    /**
+     * Chunks all given sentences with a single TreeTagger run. The sentences are separated by an
+     * SGML tag, which is used to split the output of TreeTagger again.
+     * Quarantined sentences are skipped. The deadline applies to each sentence of the batch, see
+     * {@link #setTimeout(long)}.
+     * @param sents the sentences
+     * @return the chunked sentences in the order of the input, <code>null</code> for each sentence,
+     * which could not be converted, is quarantined or exceeded the deadline
+     * @throws ChunkerException if TreeTagger could not be executed
+     */
+    @Override
+    public List<ChunkedSentence> chunkSentences(List<String> sents) throws ChunkerException {
+        List<ChunkedSentence> chunkedSents = new ArrayList<>(sents.size());
+        for (int i = 0; i < sents.size(); i++) {
+            chunkedSents.add(null);
+        }
+
+        List<String> keys = new ArrayList<>(sents.size());
+        List<String> lines = new ArrayList<>(sents.size());
+        List<Integer> indices = new ArrayList<>(sents.size());
+        for (int i = 0; i < sents.size(); i++) {
+            // OpenNLP cannot handle non-breaking whitespace
+            String sent = convertToSpace.matcher(sents.get(i)).replaceAll(" ");
+            if (quarantine.contains(sent)) continue;
+            // the delimiter is only recognized on a line of its own
+            String line = lineBreak.matcher(sent).replaceAll(" ");
+            List<String> cached = getCached(line);
+            if (cached != null) {
+                try {
+                    chunkedSents.set(i, convert(cached));
+                } catch (Exception e) {
+                    // the sentence has no chunks
+                }
+                continue;
+            }
+            keys.add(sent);
+            lines.add(line);
+            indices.add(i);
+        }
+        chunkBatch(keys, lines, indices, chunkedSents);
+        return chunkedSents;
+    }
+
+    /**
+     * Chunks the given lines with a single TreeTagger run. If TreeTagger exceeds the deadline of a
+     * sentence, the sentences, which it finished before, are kept. The sentence, which it was
+     * working on, is charged to the quarantine, and the remaining sentences are chunked by a new
+     * run.
+     * @param sents        the sentences, which are used as keys of the quarantine
+     * @param lines        the input lines of the sentences
+     * @param indices      the index of each sentence in the chunked sentences
+     * @param chunkedSents the chunked sentences of the batch
+     * @throws ChunkerException if TreeTagger could not be executed
+     */
+    private void chunkBatch(List<String> sents, List<String> lines, List<Integer> indices,
+                            List<ChunkedSentence> chunkedSents) throws ChunkerException {
+        if (lines.isEmpty()) {
+            return;
+        }
+
+        List<List<String>> outputs;
+        boolean timedOut = false;
+        try {
+            outputs = chunkAll(lines, timeout);
+        } catch (ProcessTimeoutException e) {
+            outputs = split(e.getOutput());
+            timedOut = true;
+        } catch (Exception e) {
+            throw new ChunkerException("Could not process " + lines.size() + " sentences", e);
+        }
+        if (outputs.size() > lines.size() || (!timedOut && outputs.size() != lines.size())) {
+            throw new ChunkerException("TreeTagger returned " + outputs.size() + " instead of "
+                                       + lines.size() + " sentences");
+        }
+
+        for (int i = 0; i < outputs.size(); i++) {
+            ChunkedSentence chunkedSent;
+            try {
+                chunkedSent = convert(outputs.get(i));
+            } catch (Exception e) {
+                // the sentence has no chunks
+                continue;
+            }
+            if (chunkedSent.getLength() > 0) {
+                putCached(lines.get(i), outputs.get(i));
+            }
+            chunkedSents.set(indices.get(i), chunkedSent);
+        }
+
+        if (timedOut && outputs.size() < lines.size()) {
+            int failed = outputs.size();
+            quarantine.recordFailure(sents.get(failed));
+            chunkBatch(sents.subList(failed + 1, sents.size()),
+                       lines.subList(failed + 1, lines.size()),
+                       indices.subList(failed + 1, indices.size()), chunkedSents);
+        }
+    }
+
+    /**
+     * Tokenize and chunk the given lines using a single TreeTagger run.
+     *
+     * @param lines the lines, each line is one sentence
+     * @param timeout the deadline for each sentence in milliseconds, 0 for no deadline
+     * @return the output lines of TreeTagger for each line
+     * @throws ProcessTimeoutException if TreeTagger did not finish a sentence within the deadline
+     * @throws java.io.IOException  if the TreeTagger command could not be executed or if the result
+     *                              could not be read
+     * @throws InterruptedException if the process, which executes TreeTagger, got interrupted.
+     */
+    private List<List<String>> chunkAll(List<String> lines, long timeout) throws IOException, InterruptedException {
+        List<String> input = new ArrayList<>(2 * lines.size());
+        for (String line : lines) {
+            input.add(line);
+            input.add(SENTENCE_DELIMITER);
+        }
+
+        // the deadline is reset, whenever TreeTagger passes a delimiter through
+        return split(ExternalProcess.run(CHUNK_COMMAND, input, timeout,
+                                         SENTENCE_DELIMITER::equals));
+    }
+
+    /**
+     * Splits the output of TreeTagger at the delimiters. The output lines are not copied, each
+     * sentence is a view of the output. Lines after the last delimiter are dropped.
+     * @param output the output lines of TreeTagger
+     * @return the output lines for each sentence
+     */
+    private static List<List<String>> split(List<String> output) {
+        List<List<String>> outputs = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < output.size(); i++) {
+            if (output.get(i).equals(SENTENCE_DELIMITER)) {
+                outputs.add(output.subList(start, i));
+                start = i + 1;
+            }
+        }
+        return outputs;
+    }
+
     /**
      * Tokenize and chunk the given string using TreeTagger.
      *
      * @param str the string
      * @return the output string of TreeTagger
+     * @throws ProcessTimeoutException if TreeTagger did not finish within the deadline
      * @throws java.io.IOException  if the TreeTagger command could not be executed or if the result
      *                              could not be read
      * @throws InterruptedException if the process, which executes TreeTagger, got interrupted.
      */
     public String chunk(String str) throws IOException, InterruptedException {
-        Process p = Runtime.getRuntime().exec(
-            new String[]{"/bin/sh", "-c",
-                         "echo \"" + str + "\" | " + CHUNK_COMMAND}
-        );
-        p.waitFor();
+        return Joiner.on(System.getProperty("line.separator")).join(chunkLines(str)).trim();
+    }
 
-        InputStream in = new BufferedInputStream(p.getInputStream());
-        InputStreamReader isr = new InputStreamReader(in);
-        BufferedReader buff = new BufferedReader(isr);
+    /**
+     * Tokenize and chunk the given string using TreeTagger.
+     *
+     * @param str the string
+     * @return the output lines of TreeTagger
+     * @throws ProcessTimeoutException if TreeTagger did not finish within the deadline
+     * @throws java.io.IOException  if the TreeTagger command could not be executed or if the result
+     *                              could not be read
+     * @throws InterruptedException if the process, which executes TreeTagger, got interrupted.
+     */
+    private List<String> chunkLines(String str) throws IOException, InterruptedException {
+        // the delimiter is only recognized on a line of its own
+        String line = lineBreak.matcher(str).replaceAll(" ");
+        List<String> output = getCached(line);
+        if (output != null) {
+            return output;
+        }
+        if (treeTagger != null) {
+            output = treeTagger.call(line, timeout);
+        } else {
+            // the delimiter shows, that the output is complete
+            List<List<String>> outputs = chunkAll(Collections.singletonList(line), timeout);
+            if (outputs.size() != 1) {
+                throw new IOException("TreeTagger returned an incomplete output for '" + line + "'");
+            }
+            output = outputs.get(0);
+        }
+        if (isValid(output)) {
+            putCached(line, output);
+        }
+        return output;
+    }
 
-        String output = "";
-        String line;
-        while ((line = buff.readLine()) != null) {
-            output += System.getProperty("line.separator") + line;
+    /**
+     * @param output the complete output lines of TreeTagger for a sentence
+     * @return true, if the output can be converted into a sentence with at least one token, so
+     * that it can be cached
+     */
+    private boolean isValid(List<String> output) {
+        if (output.isEmpty()) {
+            return false;
         }
+        try {
+            return convert(output).getLength() > 0;
+        } catch (Exception e) {
+            return false;
+        }
+    }
 
-        in.close();
-        buff.close();
-        p.destroy();
+    /**
+     * Keeps the output of TreeTagger in the given cache. Only complete outputs, which can be
+     * converted into a sentence, are cached.
+     * @param cache       the cache, null to disable caching
+     * @param toolVersion the version of TreeTagger and its parameter files, a new version
+     *                    invalidates all cached outputs
+     */
+    public void setCache(OutputCache cache, String toolVersion) {
+        this.cache = cache;
+        this.cacheTool = "TreeTagger " + toolVersion;
+    }
 
-        return output.trim();
+    /**
+     * @param line the input line
+     * @return the cached output of TreeTagger or null, if the output is not cached
+     */
+    private List<String> getCached(String line) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.get(cacheTool, line);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void putCached(String line, List<String> output) {
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.put(cacheTool, line, output);
+        } catch (IOException e) {
+            // the sentence is chunked again next time
+        }
+    }
+
+    /**
+     * Sets the deadline for chunking a sentence. TreeTagger is killed, if it exceeds the deadline.
+     * In a batch, the clock is reset whenever TreeTagger finishes a sentence, and the sentence,
+     * which exceeded the deadline, is charged to the quarantine.
+     * @param timeout the deadline in milliseconds, 0 for no deadline
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+
+    /**
+     * @return the sentences, which exceeded the deadline
+     */
+    public Quarantine getQuarantine() {
+        return quarantine;
     }
 
 
@@ -81,14 +376,31 @@ public class TreeTaggerSentenceChunker implements SentenceChunker {
      * @return a ChunkedSentence
      */
     public ChunkedSentence convert(String content) {
-        List<String> chunkTags = new ArrayList<>();
-        List<String> tokens = new ArrayList<>();
+        return convert(Arrays.asList(content.split(System.getProperty("line.separator"))));
+    }
 
-        String[] lines = content.split(System.getProperty("line.separator"));
+    /**
+     * Given the output lines of TreeTagger, convert them into a ChunkedSentence.
+     * The lines are parsed in a single pass, empty lines are skipped. The POS tags are taken from
+     * the second column, if the POS tags of TreeTagger are used. The lemmas are taken from the
+     * third column, if the lemmas are kept.
+     *
+     * @param lines the output lines of TreeTagger
+     * @return a ChunkedSentence
+     */
+    public ChunkedSentence convert(List<String> lines) {
+        int n = lines.size();
+        String[] tokens = new String[n];
+        String[] posTags = posTagger == null ? new String[n] : null;
+        String[] lemmas = keepLemmas ? new String[n] : null;
+        String[] chunkTags = new String[n];
+        Range[] ranges = new Range[n];
 
         String currentTag = "";
         boolean inChunk = false;
+        int chunkStart = 0;
         int count = 0;
+        int start = 0;
 
         // the output format of the TreeTagger is
         // <chunk-tag>
@@ -96,64 +408,139 @@ public class TreeTaggerSentenceChunker implements SentenceChunker {
         // </chunk-tag>
 
         for (String line : lines) {
+            if (line.trim().isEmpty()) {
+                continue;
+            }
             // end of chunk
-            if (line.startsWith("</") & line.endsWith(">")) {
-                // add the chunk tag 'count'-times
-                chunkTags.add("B-" + currentTag);
-                for (int i = 1; i < count; i++) {
-                    chunkTags.add("I-" + currentTag);
-                }
+            if (line.startsWith("</") && line.endsWith(">")) {
+                tagChunk(chunkTags, chunkStart, count, currentTag);
                 // reset values
                 currentTag = "";
                 inChunk = false;
-                count = 0;
 
                 // begin of chunk
-            } else if (line.startsWith("<") & line.endsWith(">")) {
-                currentTag = line.substring(1, line.length() - 1);
-
-                // change name of tag so that it matches the English tags
-                switch (currentTag) {
-                    case "NC":
-                        currentTag = "NP"; // noun phrase
-                        break;
-                    case "VC":
-                        currentTag = "VP"; // verb phrase
-                        break;
-                    case "PC":
-                        currentTag = "PP"; // prepositional phrase
-                        break;
-                }
+            } else if (line.startsWith("<") && line.endsWith(">")) {
+                currentTag = convertChunkTag(line.substring(1, line.length() - 1));
                 inChunk = true;
+                chunkStart = count;
 
                 // token
             } else {
-                String[] parts = line.split("\t");
-                tokens.add(parts[0]);
-                // token belongs to a chunk
-                if (inChunk) {
-                    count++;
-
-                    // token does not belong to a chunk
-                } else {
-                    chunkTags.add("O");
+                int tab = line.indexOf('\t');
+                String token = tab < 0 ? line : line.substring(0, tab);
+                tokens[count] = token;
+                if (posTags != null) {
+                    posTags[count] = getPosTag(line, tab);
                 }
+                if (lemmas != null) {
+                    lemmas[count] = getLemma(line, tab);
+                }
+                ranges[count] = Range.fromInterval(start, start + token.length());
+                start += token.length();
+                // token does not belong to a chunk
+                chunkTags[count] = inChunk ? null : "O";
+                count++;
             }
         }
+        if (inChunk) {
+            tagChunk(chunkTags, chunkStart, count, currentTag);
+        }
 
-        String[] tokenArr = tokens.toArray(new String[tokens.size()]);
-        String[] chunkTagArr = chunkTags.toArray(new String[chunkTags.size()]);
-        String[] posTagArr = posTagger.tag(tokenArr);
+        String[] tokenArr = Arrays.copyOf(tokens, count);
+        String[] chunkTagArr = Arrays.copyOf(chunkTags, count);
+        String[] posTagArr = posTagger == null ? Arrays.copyOf(posTags, count) : posTagger.tag(tokenArr);
 
-        ArrayList<Range> ranges = new ArrayList<>();
-        int start = 0;
-        for (String token : tokenArr) {
-            ranges.add(Range.fromInterval(start, start + token.length()));
-            start = start + token.length();
+        ChunkedSentence sent = new ChunkedSentence(Arrays.copyOf(ranges, count), tokenArr, posTagArr,
+                                                   chunkTagArr);
+        if (lemmas != null) {
+            sent.addLayer(ChunkedSentence.LEMMA_LAYER, Arrays.copyOf(lemmas, count));
+        }
+        return sent;
+    }
+
+    /**
+     * @param line an output line of TreeTagger: token, POS tag and lemma separated by tabs
+     * @param tab the index of the first tab
+     * @return the POS tag
+     */
+    private static String getPosTag(String line, int tab) {
+        if (tab < 0) {
+            return "";
+        }
+        int end = line.indexOf('\t', tab + 1);
+        return end < 0 ? line.substring(tab + 1) : line.substring(tab + 1, end);
+    }
+
+    /**
+     * @param line an output line of TreeTagger: token, POS tag and lemma separated by tabs
+     * @param tab the index of the first tab
+     * @return the lemma, the first one if TreeTagger found multiple lemmas, or
+     * {@link ChunkedSentence#UNKNOWN_LEMMA}
+     */
+    private static String getLemma(String line, int tab) {
+        int start = tab < 0 ? -1 : line.indexOf('\t', tab + 1);
+        if (start < 0) {
+            return ChunkedSentence.UNKNOWN_LEMMA;
+        }
+        int end = line.indexOf('\t', start + 1);
+        String lemma = end < 0 ? line.substring(start + 1) : line.substring(start + 1, end);
+        // ambiguous lemmas are separated by a bar, e.g. 'Weg|Wegen'
+        int bar = lemma.indexOf('|');
+        if (bar > 0) {
+            lemma = lemma.substring(0, bar);
         }
+        return lemma.isEmpty() ? ChunkedSentence.UNKNOWN_LEMMA : lemma;
+    }
 
-        return new ChunkedSentence(ranges.toArray(new Range[ranges.size()]), tokenArr, posTagArr,
-                                   chunkTagArr);
+    /**
+     * Keeps the lemmas of TreeTagger as {@link ChunkedSentence#LEMMA_LAYER}, so that they can be
+     * used for the normalization of relations.
+     * @param keepLemmas true, if the lemmas should be kept
+     */
+    public void setKeepLemmas(boolean keepLemmas) {
+        this.keepLemmas = keepLemmas;
+    }
+
+    /**
+     * @return true, if the POS tags of TreeTagger are used, false, if the tokens are tagged by
+     * OpenNLP
+     */
+    public boolean usesTreeTaggerPosTags() {
+        return posTagger == null;
+    }
+
+    private static void tagChunk(String[] chunkTags, int start, int end, String tag) {
+        for (int i = start; i < end; i++) {
+            chunkTags[i] = (i == start ? "B-" : "I-") + tag;
+        }
+    }
+
+    /**
+     * Changes the name of a chunk tag so that it matches the English tags.
+     * @param tag the chunk tag of TreeTagger, e.g. NC
+     * @return the English chunk tag, e.g. NP
+     */
+    private static String convertChunkTag(String tag) {
+        switch (tag) {
+            case "NC":
+                return "NP"; // noun phrase
+            case "VC":
+                return "VP"; // verb phrase
+            case "PC":
+                return "PP"; // prepositional phrase
+            default:
+                return tag;
+        }
+    }
+
+    /**
+     * Stops TreeTagger, if it is running in persistent mode.
+     */
+    @Override
+    public void close() {
+        if (treeTagger != null) {
+            treeTagger.close();
+        }
     }
 
 }
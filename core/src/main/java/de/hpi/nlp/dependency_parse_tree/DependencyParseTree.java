@@ -1,7 +1,9 @@
 package de.hpi.nlp.dependency_parse_tree;
 
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +22,67 @@ public class DependencyParseTree {
     }
 
 
+    /**
+     * Given a dependency parse in the ConLL format of ParZu, convert it into dependency parse
+     * trees. An empty line separates two trees.
+     *
+     * @param content the lines in the ConLL format
+     * @return a list of dependency parse trees
+     */
+    public static List<DependencyParseTree> fromConll(List<String> content) {
+        List<DependencyParseTree> trees = new ArrayList<>();
+
+        List<Node> nodes = new ArrayList<>();
+        nodes.add(new Node(0));
+
+        for (String line: content) {
+            if (line.isEmpty()) {
+                // sentence is splitted
+                trees.add(toTree(nodes));
+
+                nodes = new ArrayList<>();
+                nodes.add(new Node(0));
+            } else {
+                Node node = new Node(line);
+                nodes.add(node);
+            }
+        }
+
+        if (nodes.size() > 1) trees.add(toTree(nodes));
+
+        return trees;
+    }
+
+    /**
+     * Given a list of nodes, create a tree.
+     * @param nodes the nodes
+     * @return a tree
+     */
+    private static DependencyParseTree toTree(List<Node> nodes) {
+        DependencyParseTree tree = null;
+        for (Node n : nodes) {
+            // create tree, if we find root node
+            if (n.getParentId() == -1) {
+                tree = new DependencyParseTree(n);
+                continue;
+            };
+
+            // find parent node
+            Optional<Node> optionalParentNode = nodes.stream()
+                .filter(x -> x.getId() == n.getParentId())
+                .findFirst();
+            Node parentNode = null;
+            if (optionalParentNode.isPresent()) {
+                parentNode = optionalParentNode.get();
+
+                // set parent node and child node of parent
+                n.setParent(parentNode);
+                parentNode.addChild(n);
+            }
+        }
+        return tree;
+    }
+
     /**
      * Returns the tree as a list of node objects. The elements of the
      * list are generated from a pre-order traversal of the tree.
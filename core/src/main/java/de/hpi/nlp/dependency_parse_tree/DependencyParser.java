@@ -0,0 +1,40 @@
+package de.hpi.nlp.dependency_parse_tree;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A dependency parser, which converts sentences into dependency parse trees with the labels and
+ * POS tags of ParZu.
+ */
+public interface DependencyParser {
+
+    /**
+     * Parses the sentence and converts it into dependency parse trees.
+     * There can be multiple parse trees, if the parser decides to split the sentence.
+     * @param sent the sentence
+     * @return a list of dependency parse trees, which is empty if the sentence could not be parsed
+     */
+    public List<DependencyParseTree> parseSentence(String sent);
+
+    /**
+     * Parses the given sentences. Implementations can override this method to process all
+     * sentences at once.
+     * @param sents the sentences
+     * @return a list of dependency parse trees for each sentence in the order of the input
+     */
+    public default List<List<DependencyParseTree>> parseSentences(List<String> sents) {
+        List<List<DependencyParseTree>> trees = new ArrayList<>(sents.size());
+        for (String sent : sents) {
+            trees.add(parseSentence(sent));
+        }
+        return trees;
+    }
+
+    /**
+     * @return the number of sentences, which can be parsed at the same time
+     */
+    public default int getConcurrency() {
+        return 1;
+    }
+}
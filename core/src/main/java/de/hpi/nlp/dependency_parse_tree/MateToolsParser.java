@@ -0,0 +1,174 @@
+package de.hpi.nlp.dependency_parse_tree;
+
+import com.google.common.base.Joiner;
+import de.hpi.util.DefaultObjects;
+import is2.data.SentenceData09;
+import is2.lemmatizer.Lemmatizer;
+import is2.parser.Parser;
+import is2.tag.Tagger;
+import is2.tools.Tool;
+import is2.util.DB;
+import opennlp.tools.tokenize.Tokenizer;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Dependency Tree Parser, which runs the mate-tools pipeline (lemmatizer, tagger, morphological
+ * tagger and graph-based parser) in the JVM.
+ * The TIGER labels of the parser are converted into the labels of ParZu by
+ * {@link TigerToParZuConverter}, so that the parse trees can be used by Dep ConIE.
+ *
+ * The mate-tools components are not thread-safe. Therefore, the parser keeps a pool of
+ * pipelines, each sentence is parsed by an idle pipeline.
+ */
+public class MateToolsParser implements DependencyParser {
+
+    public static final String LEMMATIZER_MODEL_FILE = "lemma-ger-3.6.model";
+    public static final String TAGGER_MODEL_FILE = "tag-ger-3.6.model";
+    public static final String MORPH_TAGGER_MODEL_FILE = "morph-ger-3.6.model";
+    public static final String PARSER_MODEL_FILE = "parser-ger-3.6.model";
+
+    private static final String ROOT = "<root>";
+
+    private final Tokenizer tokenizer;
+    private final List<Tool[]> pipelines;
+    private final BlockingQueue<Tool[]> idlePipelines;
+
+    /**
+     * Constructs a new parser with a single pipeline, which loads the models from the classpath.
+     * @throws IOException if the tokenizer model could not be read
+     */
+    public MateToolsParser() throws IOException {
+        this(1);
+    }
+
+    /**
+     * Constructs a new parser, which loads the models from the classpath.
+     * The morphological tagger is optional.
+     * @param numberOfPipelines the number of pipelines, each pipeline loads its own models
+     * @throws IOException if the tokenizer model could not be read
+     */
+    public MateToolsParser(int numberOfPipelines) throws IOException {
+        this(numberOfPipelines, DefaultObjects.getDefaultTokenizer(),
+             DefaultObjects.getResourcePath(LEMMATIZER_MODEL_FILE),
+             DefaultObjects.getResourcePath(TAGGER_MODEL_FILE),
+             DefaultObjects.getResourcePath(MORPH_TAGGER_MODEL_FILE),
+             DefaultObjects.getResourcePath(PARSER_MODEL_FILE));
+    }
+
+    /**
+     * Constructs a new parser.
+     * @param numberOfPipelines the number of pipelines, each pipeline loads its own models
+     * @param tokenizer the tokenizer
+     * @param lemmatizerModel the path of the lemmatizer model
+     * @param taggerModel the path of the tagger model
+     * @param morphTaggerModel the path of the morphological tagger model, can be empty
+     * @param parserModel the path of the parser model
+     */
+    public MateToolsParser(int numberOfPipelines, Tokenizer tokenizer, String lemmatizerModel,
+                           String taggerModel, String morphTaggerModel, String parserModel) {
+        if (numberOfPipelines < 1) {
+            throw new IllegalArgumentException("numberOfPipelines < 1: " + numberOfPipelines);
+        }
+        DB.setDebug(false);
+
+        this.tokenizer = tokenizer;
+        this.pipelines = new ArrayList<>(numberOfPipelines);
+        this.idlePipelines = new ArrayBlockingQueue<>(numberOfPipelines);
+        for (int i = 0; i < numberOfPipelines; i++) {
+            List<Tool> pipeline = new ArrayList<>();
+            pipeline.add(new Lemmatizer(lemmatizerModel, false));
+            pipeline.add(new Tagger(taggerModel));
+            if (morphTaggerModel != null && !morphTaggerModel.isEmpty()) {
+                pipeline.add(new is2.mtag.Tagger(morphTaggerModel));
+            }
+            pipeline.add(new Parser(parserModel));
+
+            Tool[] tools = pipeline.toArray(new Tool[pipeline.size()]);
+            this.pipelines.add(tools);
+            this.idlePipelines.add(tools);
+        }
+    }
+
+    @Override
+    public List<DependencyParseTree> parseSentence(String sent) {
+        try {
+            List<String> dependencyParseTreeStr = parse(sent);
+            List<DependencyParseTree> trees = DependencyParseTree.fromConll(dependencyParseTreeStr);
+            for (DependencyParseTree tree : trees) {
+                tree.setSentence(sent);
+                tree.setConllFormat(Joiner.on("\n").join(dependencyParseTreeStr));
+            }
+            return trees;
+        } catch (Exception e) {
+            System.out.println("mate-tools: Could not process sentence '" + sent + "'");
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Get the dependency parse tree string (ConLL format of ParZu) using an idle pipeline.
+     * Waits until a pipeline is idle, if all pipelines are busy.
+     *
+     * @param str the string
+     * @return a dependency parse tree as string
+     * @throws InterruptedException if the thread got interrupted while waiting for an idle pipeline
+     */
+    public List<String> parse(String str) throws InterruptedException {
+        String[] tokens = tokenizer.tokenize(str);
+        if (tokens.length == 0) {
+            return new ArrayList<>();
+        }
+
+        // the first token is the artificial root
+        String[] forms = new String[tokens.length + 1];
+        forms[0] = ROOT;
+        System.arraycopy(tokens, 0, forms, 1, tokens.length);
+        SentenceData09 sent = new SentenceData09();
+        sent.init(forms);
+
+        Tool[] pipeline = idlePipelines.take();
+        try {
+            for (Tool tool : pipeline) {
+                sent = tool.apply(sent);
+            }
+        } finally {
+            idlePipelines.add(pipeline);
+        }
+
+        // the result may still contain the root
+        int offset = sent.forms.length > tokens.length ? 1 : 0;
+        int n = sent.forms.length - offset;
+        String[] words = new String[n];
+        String[] lemmas = new String[n];
+        String[] posTags = new String[n];
+        String[] morphology = new String[n];
+        int[] heads = new int[n];
+        String[] labels = new String[n];
+        for (int i = 0; i < n; i++) {
+            words[i] = sent.forms[i + offset];
+            lemmas[i] = get(sent.plemmas, i + offset);
+            posTags[i] = get(sent.ppos, i + offset);
+            morphology[i] = get(sent.pfeats, i + offset);
+            heads[i] = sent.pheads[i + offset];
+            labels[i] = get(sent.plabels, i + offset);
+        }
+        return TigerToParZuConverter.toConll(words, lemmas, posTags, morphology, heads, labels);
+    }
+
+    private static String get(String[] values, int i) {
+        return values == null || i >= values.length || values[i] == null ? "" : values[i];
+    }
+
+    /**
+     * @return the number of pipelines
+     */
+    @Override
+    public int getConcurrency() {
+        return pipelines.size();
+    }
+}
@@ -1,21 +1,73 @@
 package de.hpi.nlp.dependency_parse_tree;
 
 import com.google.common.base.Joiner;
+import de.hpi.nlp.ExternalProcess;
+import de.hpi.nlp.OutputCache;
+import de.hpi.nlp.ProcessTimeoutException;
+import de.hpi.nlp.Quarantine;
+import de.hpi.nlp.chunking.ChunkedSentence;
+import de.hpi.nlp.chunking.ChunkerException;
+import de.hpi.nlp.chunking.SentenceChunker;
+import de.hpi.nlp.chunking.TreeTaggerSentenceChunker;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Optional;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Dependency Tree Parser.
+ * The output of ParZu can be kept in an {@link OutputCache}, so that a sentence is only parsed, if
+ * it was not parsed by the same ParZu version before.
  */
-public class ParZuSentenceParser {
+public class ParZuSentenceParser implements DependencyParser {
 
-    private static final String PARZU_HOME = System.getenv("PARZU_HOME");
-    private static final String PARSE_COMMAND = "python " + PARZU_HOME + "parzu.py";
+    static final String PARZU_HOME = System.getenv("PARZU_HOME");
+    // the default deadline for parsing a sentence in milliseconds
+    public static final long DEFAULT_TIMEOUT = 60000;
+
+    // Each sentence of a batch is followed by a marker sentence, which carries the index of the
+    // sentence. The marker token is not split by the tokenizer of ParZu.
+    static final String SENTENCE_MARKER = "PARZUSENTENCEMARKER";
+    private static final Pattern SENTENCE_MARKER_PATTERN = Pattern.compile(SENTENCE_MARKER + "(\\d+)");
+
+    // tokenizes and tags the sentences, if ParZu should get tagged input
+    private final SentenceChunker tagger;
+
+    private long timeout = DEFAULT_TIMEOUT;
+    // sentences, which exceeded the deadline repeatedly
+    private final Quarantine quarantine = new Quarantine();
+    private OutputCache cache = null;
+    private String cacheTool = null;
+
+    /**
+     * Constructs a new parser, which sends the raw sentences to ParZu.
+     */
+    public ParZuSentenceParser() {
+        this((SentenceChunker) null);
+    }
+
+    /**
+     * Constructs a new parser.
+     * @param tagged if true, the sentences are tokenized and tagged by a persistent TreeTagger
+     *               process, so that ParZu only runs its parsing stage
+     * @throws IOException if the POS tagger model could not be loaded
+     */
+    public ParZuSentenceParser(boolean tagged) throws IOException {
+        this(tagged ? new TreeTaggerSentenceChunker(true) : null);
+    }
+
+    /**
+     * Constructs a new parser, which sends the tokens and POS tags of the given chunker to ParZu.
+     * @param tagger the chunker, which tokenizes and tags the sentences, or null, if the raw
+     *               sentences should be sent to ParZu
+     */
+    public ParZuSentenceParser(SentenceChunker tagger) {
+        this.tagger = tagger;
+    }
 
     /**
      * Parses the sentence and converts it into dependency parse trees.
@@ -23,15 +75,18 @@ public class ParZuSentenceParser {
      * @param sent the sentence
      * @return a list of dependency parse trees
      */
+    @Override
     public List<DependencyParseTree> parseSentence(String sent) {
+        if (quarantine.contains(sent)) {
+            return new ArrayList<>();
+        }
         try {
             List<String> dependencyParseTreeStr = parse(sent);
-            List<DependencyParseTree> trees = convert(dependencyParseTreeStr);
-            for (DependencyParseTree tree : trees) {
-                tree.setSentence(sent);
-                tree.setConllFormat(Joiner.on("\n").join(dependencyParseTreeStr));
-            }
-            return trees;
+            return toTrees(sent, dependencyParseTreeStr);
+        } catch (ProcessTimeoutException e) {
+            System.out.println("ParZu: Timeout for sentence '" + sent + "'");
+            quarantine.recordFailure(sent);
+            return new ArrayList<>();
         } catch (Exception e) {
             System.out.println("ParZu: Could not process sentence '" + sent + "'");
             return new ArrayList<>();
@@ -39,6 +94,266 @@ public class ParZuSentenceParser {
     }
 
 
+    /**
+     * Parses all given sentences with a single ParZu run and converts them into dependency parse
+     * trees. ParZu can split a sentence into multiple parse trees. Therefore, each sentence is
+     * followed by a marker sentence, which carries the index of the sentence. The parse trees
+     * between two markers belong to the sentence of the second marker.
+     * Quarantined sentences are skipped. The deadline applies to each sentence of the batch, see
+     * {@link #setTimeout(long)}.
+     * @param sents the sentences
+     * @return a list of dependency parse trees for each sentence in the order of the input. The
+     * list is empty, if the sentence could not be parsed.
+     */
+    @Override
+    public List<List<DependencyParseTree>> parseSentences(List<String> sents) {
+        List<List<DependencyParseTree>> result = new ArrayList<>(sents.size());
+        for (int i = 0; i < sents.size(); i++) {
+            result.add(new ArrayList<>());
+        }
+
+        // sentences, which are neither quarantined nor cached
+        List<Integer> indices = new ArrayList<>();
+        for (int i = 0; i < sents.size(); i++) {
+            if (quarantine.contains(sents.get(i))) continue;
+            List<String> cached = getCached(sents.get(i));
+            if (cached != null) {
+                result.set(i, toTrees(sents.get(i), cached));
+            } else {
+                indices.add(i);
+            }
+        }
+        parseBatch(sents, indices, result);
+        return result;
+    }
+
+    /**
+     * Parses the sentences with the given indices with a single ParZu run. If ParZu exceeds the
+     * deadline of a sentence, the sentences, which it finished before, are kept. The sentence,
+     * which it was working on, is charged to the quarantine, and the remaining sentences are parsed
+     * by a new run. If ParZu did not finish any sentence, the sentence, which exceeded the
+     * deadline, is not known, and the sentences are parsed one by one.
+     * @param sents   all sentences
+     * @param indices the indices of the sentences to parse
+     * @param result  the dependency parse trees of all sentences
+     */
+    private void parseBatch(List<String> sents, List<Integer> indices,
+                            List<List<DependencyParseTree>> result) {
+        if (indices.isEmpty()) {
+            return;
+        }
+
+        List<String> output;
+        boolean timedOut = false;
+        try {
+            List<String> lines = new ArrayList<>();
+            if (tagger == null) {
+                for (int i : indices) {
+                    lines.add(sents.get(i).replaceAll("[\\r\\n]+", " "));
+                    lines.add("");
+                    lines.add(SENTENCE_MARKER + i + " .");
+                    lines.add("");
+                }
+            } else {
+                // sentences, which could not be tagged, are skipped and have no parse trees
+                List<String> untagged = new ArrayList<>(indices.size());
+                for (int i : indices) {
+                    untagged.add(sents.get(i));
+                }
+                List<ChunkedSentence> taggedSents;
+                synchronized (tagger) {
+                    taggedSents = tagger.chunkSentences(untagged);
+                }
+                for (int j = 0; j < indices.size(); j++) {
+                    if (taggedSents.get(j) != null) {
+                        lines.addAll(toTaggedLines(taggedSents.get(j)));
+                    }
+                    lines.add(SENTENCE_MARKER + indices.get(j) + "\tNE");
+                    lines.add(".\t$.");
+                    lines.add("");
+                }
+            }
+            output = parseLines(lines, timeout);
+        } catch (ProcessTimeoutException e) {
+            output = new ArrayList<>(e.getOutput());
+            timedOut = true;
+        } catch (Exception e) {
+            System.out.println("ParZu: Could not process " + indices.size() + " sentences");
+            return;
+        }
+
+        Set<Integer> parsed = collect(output, sents, result);
+
+        if (timedOut && parsed.isEmpty() && indices.size() > 1) {
+            // no progress at all, the whole batch may have been too slow
+            for (int i : indices) {
+                result.set(i, parseSentence(sents.get(i)));
+            }
+        } else if (timedOut) {
+            // the first sentence without a marker is the one, which ParZu was working on
+            int failed = 0;
+            while (failed < indices.size() && parsed.contains(indices.get(failed))) {
+                failed++;
+            }
+            if (failed < indices.size()) {
+                String sent = sents.get(indices.get(failed));
+                System.out.println("ParZu: Timeout for sentence '" + sent + "'");
+                quarantine.recordFailure(sent);
+                parseBatch(sents, indices.subList(failed + 1, indices.size()), result);
+            }
+        }
+    }
+
+    /**
+     * Splits the output of ParZu at the marker sentences and converts the output of each sentence
+     * into dependency parse trees.
+     * @param output the output lines of ParZu
+     * @param sents  all sentences
+     * @param result the dependency parse trees of all sentences
+     * @return the indices of the sentences, whose marker was found in the output
+     */
+    private Set<Integer> collect(List<String> output, List<String> sents,
+                                 List<List<DependencyParseTree>> result) {
+        Set<Integer> parsed = new HashSet<>();
+        List<String> sentLines = new ArrayList<>();
+        List<String> blockLines = new ArrayList<>();
+        output.add("");
+        for (String line : output) {
+            if (!line.isEmpty()) {
+                blockLines.add(line);
+                continue;
+            }
+
+            int markerIndex = -1;
+            int markerLine = 0;
+            for (; markerLine < blockLines.size(); markerLine++) {
+                Matcher matcher = SENTENCE_MARKER_PATTERN.matcher(blockLines.get(markerLine));
+                if (matcher.find()) {
+                    markerIndex = Integer.parseInt(matcher.group(1));
+                    break;
+                }
+            }
+
+            if (markerIndex < 0) {
+                // the block is part of the current sentence
+                sentLines.addAll(blockLines);
+                sentLines.add("");
+            } else {
+                // the lines before the marker belong to the current sentence, the marker sentence
+                // itself is dropped
+                sentLines.addAll(blockLines.subList(0, markerLine));
+                if (markerIndex < sents.size()) {
+                    // if ParZu merged the marker into the sentence, the parse is not cached
+                    if (markerLine == 0) {
+                        putCached(sents.get(markerIndex), sentLines);
+                    }
+                    result.set(markerIndex, toTrees(sents.get(markerIndex), sentLines));
+                    parsed.add(markerIndex);
+                }
+                sentLines = new ArrayList<>();
+            }
+            blockLines.clear();
+        }
+        return parsed;
+    }
+
+    /**
+     * @param line an output line of ParZu
+     * @return true, if the line belongs to a marker sentence, i.e. ParZu finished the sentence
+     * before the marker
+     */
+    static boolean isMarkerLine(String line) {
+        return line.contains(SENTENCE_MARKER);
+    }
+
+    /**
+     * Converts the given sentence into the input lines of ParZu.
+     * @param sent the sentence
+     * @return the raw sentence or the tagged tokens of the sentence, one token per line
+     * @throws ChunkerException if the sentence could not be tagged
+     */
+    protected List<String> toInputLines(String sent) throws ChunkerException {
+        List<String> lines = new ArrayList<>();
+        if (tagger == null) {
+            lines.add(sent.replaceAll("[\\r\\n]+", " "));
+        } else {
+            // the tagger can be shared by multiple threads, but is not thread-safe
+            ChunkedSentence taggedSent;
+            synchronized (tagger) {
+                taggedSent = tagger.chunkSentence(sent);
+            }
+            lines.addAll(toTaggedLines(taggedSent));
+        }
+        return lines;
+    }
+
+    /**
+     * Converts the given sentence into the tagged input format of ParZu: one token and its POS tag
+     * per line, followed by an empty line.
+     * @param sent the tagged sentence
+     * @return the input lines
+     */
+    private List<String> toTaggedLines(ChunkedSentence sent) {
+        List<String> lines = new ArrayList<>(sent.getLength() + 1);
+        for (int i = 0; i < sent.getLength(); i++) {
+            // ParZu separates token and tag by a tab, so the token must not contain white space
+            lines.add(sent.getTokens().get(i).replaceAll("\\s+", "") + "\t" + sent.getPosTags().get(i));
+        }
+        lines.add("");
+        return lines;
+    }
+
+    /**
+     * @return true, if ParZu gets tokenized and tagged input, false otherwise
+     */
+    public boolean isTagged() {
+        return tagger != null;
+    }
+
+    /**
+     * @return the input format of ParZu
+     */
+    protected String getInputFormat() {
+        return isTagged() ? "tagged" : "plain";
+    }
+
+    /**
+     * Converts the output of ParZu for one sentence into dependency parse trees.
+     * @param sent the sentence
+     * @param dependencyParseTreeStr the output of ParZu
+     * @return a list of dependency parse trees
+     */
+    private List<DependencyParseTree> toTrees(String sent, List<String> dependencyParseTreeStr) {
+        List<DependencyParseTree> trees = convert(dependencyParseTreeStr);
+        for (DependencyParseTree tree : trees) {
+            tree.setSentence(sent);
+            tree.setConllFormat(Joiner.on("\n").join(dependencyParseTreeStr));
+        }
+        return trees;
+    }
+
+
+    /**
+     * Get the dependency parse tree strings (ConLL format) of the given lines using a single ParZu
+     * run. The deadline is reset, whenever ParZu finishes a sentence of a batch.
+     *
+     * @param lines the input lines
+     * @param timeout the deadline for each sentence in milliseconds, 0 for no deadline
+     * @return the dependency parse trees as string
+     * @throws ProcessTimeoutException if ParZu did not finish a sentence within the deadline, the
+     * exception carries the output before the timeout
+     * @throws IOException  if the ParZu command could not be executed or if the result
+     *                      could not be read
+     * @throws InterruptedException if the process, which executes ParZu, got interrupted.
+     */
+    protected List<String> parseLines(List<String> lines, long timeout) throws IOException, InterruptedException {
+        // unbuffered, so that the finished sentences arrive before the end of the batch
+        return ExternalProcess.run(
+            new String[]{"python", "-u", PARZU_HOME + "parzu.py", "-i", getInputFormat()}, lines,
+            timeout, ParZuSentenceParser::isMarkerLine);
+    }
+
+
     /**
      * Get the dependency parse tree string (ConLL format) using ParZu.
      *
@@ -49,82 +364,109 @@ public class ParZuSentenceParser {
      * @throws InterruptedException if the process, which executes ParZu, got interrupted.
      */
     public List<String> parse(String str) throws IOException, InterruptedException {
-        Process p = Runtime.getRuntime().exec(new String[]{
-            "/bin/sh", "-c", "echo \"" + str + "\" | " + PARSE_COMMAND});
-
-        BufferedReader stdInput = new BufferedReader(new InputStreamReader(p.getInputStream()));
-        p.waitFor();
-
-        List<String> output = new ArrayList<>();
-        String line;
-        while ((line = stdInput.readLine()) != null) {
-            output.add(line);
+        List<String> output = getCached(str);
+        if (output != null) {
+            return output;
+        }
+        try {
+            output = parseLines(toInputLines(str), timeout);
+        } catch (ChunkerException e) {
+            throw new IOException("Could not tag sentence '" + str + "'", e);
         }
+        putCached(str, output);
+        return output;
+    }
 
-        stdInput.close();
-        p.destroy();
 
-        return output;
+    /**
+     * Sets the deadline for parsing a sentence. ParZu is killed, if it exceeds the deadline. In a
+     * batch, the clock is reset whenever ParZu finishes a sentence, and the sentence, which
+     * exceeded the deadline, is charged to the quarantine.
+     * @param timeout the deadline in milliseconds, 0 for no deadline
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
     }
 
+    /**
+     * @return the deadline for parsing a sentence in milliseconds
+     */
+    public long getTimeout() {
+        return timeout;
+    }
 
     /**
-     * Given the output of the ParZu, convert it into a dependency parse tree.
-     *
-     * @param content the output of the ParZu
-     * @return a dependency parse tree
+     * @return the sentences, which exceeded the deadline
      */
-    public List<DependencyParseTree> convert(List<String> content) {
-        List<DependencyParseTree> trees = new ArrayList<>();
+    public Quarantine getQuarantine() {
+        return quarantine;
+    }
 
-        List<Node> nodes = new ArrayList<>();
-        nodes.add(new Node(0));
+    /**
+     * Keeps the output of ParZu in the given cache. Only outputs with parse trees and, in a batch,
+     * with a clean boundary at the marker sentence are cached.
+     * @param cache       the cache, null to disable caching
+     * @param toolVersion the version of ParZu and its models, a new version invalidates all cached
+     *                    outputs
+     */
+    public void setCache(OutputCache cache, String toolVersion) {
+        this.cache = cache;
+        this.cacheTool = "ParZu " + toolVersion + " " + getInputFormat();
+    }
 
-        for (String line: content) {
-            if (line.isEmpty()) {
-                // sentence is splitted
-                trees.add(toTree(nodes));
+    /**
+     * @param sent the sentence
+     * @return the cached output of ParZu or null, if the output is not cached
+     */
+    private List<String> getCached(String sent) {
+        if (cache == null) {
+            return null;
+        }
+        try {
+            return cache.get(cacheTool, sent);
+        } catch (IOException e) {
+            return null;
+        }
+    }
 
-                nodes = new ArrayList<>();
-                nodes.add(new Node(0));
-            } else {
-                Node node = new Node(line);
-                nodes.add(node);
+    /**
+     * Caches the output of ParZu. Outputs without parse trees are not cached, because ParZu
+     * returns no output, if it fails.
+     */
+    private void putCached(String sent, List<String> output) {
+        if (cache == null || output.isEmpty()) {
+            return;
+        }
+        try {
+            if (convert(output).isEmpty()) {
+                return;
             }
+        } catch (Exception e) {
+            return;
         }
+        try {
+            cache.put(cacheTool, sent, output);
+        } catch (IOException e) {
+            // the sentence is parsed again next time
+        }
+    }
 
-        if (nodes.size() > 1) trees.add(toTree(nodes));
-
-        return trees;
+    /**
+     * @return the number of sentences, which can be parsed at the same time
+     */
+    @Override
+    public int getConcurrency() {
+        return 1;
     }
 
+
     /**
-     * Given a list of nodes, create a tree.
-     * @param nodes the nodes
-     * @return a tree
+     * Given the output of the ParZu, convert it into a dependency parse tree.
+     *
+     * @param content the output of the ParZu
+     * @return a dependency parse tree
      */
-    private DependencyParseTree toTree(List<Node> nodes) {
-        DependencyParseTree tree = null;
-        for (Node n : nodes) {
-            // create tree, if we find root node
-            if (n.getParentId() == -1) {
-                tree = new DependencyParseTree(n);
-                continue;
-            };
-
-            // find parent node
-            Optional<Node> optionalParentNode = nodes.stream()
-                .filter(x -> x.getId() == n.getParentId())
-                .findFirst();
-            Node parentNode = null;
-            if (optionalParentNode.isPresent()) {
-                parentNode = optionalParentNode.get();
-
-                // set parent node and child node of parent
-                n.setParent(parentNode);
-                parentNode.addChild(n);
-            }
-        }
-        return tree;
+    public List<DependencyParseTree> convert(List<String> content) {
+        return DependencyParseTree.fromConll(content);
     }
 }
@@ -0,0 +1,165 @@
+package de.hpi.nlp.dependency_parse_tree;
+
+import de.hpi.nlp.CoProcess;
+import de.hpi.nlp.chunking.SentenceChunker;
+import de.hpi.nlp.chunking.TreeTaggerSentenceChunker;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Dependency Tree Parser, which keeps a pool of ParZu processes running.
+ * ParZu loads the Python interpreter, the tagger and the grammar only once per process. Each
+ * sentence is sent to an idle process, so that multiple sentences can be parsed at the same time.
+ */
+public class PooledParZuSentenceParser extends ParZuSentenceParser implements Closeable {
+
+    // marks the end of a sentence in the input and output of a worker
+    private static final String SENTENCE_DELIMITER = "<sentence-end/>";
+
+    // Reads lines until the delimiter, parses them with the ParZu Python module and writes the
+    // CoNLL output followed by the delimiter. The sentences of a batch are parsed one by one: the
+    // text is parsed, whenever the marker sentence after a sentence is complete, and the output
+    // is flushed, so that each finished sentence resets the deadline of the batch.
+    private static final String WORKER_SCRIPT =
+        "import sys\n" +
+        "sys.path.insert(0, sys.argv[1])\n" +
+        "import parzu_class\n" +
+        "options = parzu_class.process_arguments(commandline=False)\n" +
+        "options['input'] = sys.argv[2]\n" +
+        "parser = parzu_class.Parser(options)\n" +
+        "def parse(text):\n" +
+        "    if any(text):\n" +
+        "        for sentence in parser.main('\\n'.join(text)):\n" +
+        "            sys.stdout.write(sentence.strip('\\n') + '\\n\\n')\n" +
+        "    sys.stdout.flush()\n" +
+        "text = []\n" +
+        "in_marker = False\n" +
+        "for line in iter(sys.stdin.readline, ''):\n" +
+        "    line = line.rstrip('\\n')\n" +
+        "    if line == '" + SENTENCE_DELIMITER + "':\n" +
+        "        parse(text)\n" +
+        "        sys.stdout.write('" + SENTENCE_DELIMITER + "\\n')\n" +
+        "        sys.stdout.flush()\n" +
+        "        text = []\n" +
+        "        in_marker = False\n" +
+        "        continue\n" +
+        "    text.append(line)\n" +
+        "    if '" + SENTENCE_MARKER + "' in line:\n" +
+        "        in_marker = True\n" +
+        "    elif in_marker and line == '':\n" +
+        "        # the marker sentence ends with an empty line in both input formats\n" +
+        "        parse(text)\n" +
+        "        text = []\n" +
+        "        in_marker = False\n";
+
+    private final List<CoProcess> workers;
+    private final BlockingQueue<CoProcess> idleWorkers;
+
+    /**
+     * Constructs a new parser with one ParZu process per available core.
+     */
+    public PooledParZuSentenceParser() {
+        this(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a new parser.
+     * The ParZu processes are started, when they are needed for the first time.
+     * @param numberOfWorkers the number of ParZu processes
+     */
+    public PooledParZuSentenceParser(int numberOfWorkers) {
+        this(numberOfWorkers, (SentenceChunker) null);
+    }
+
+    /**
+     * Constructs a new parser.
+     * The ParZu processes are started, when they are needed for the first time.
+     * @param numberOfWorkers the number of ParZu processes
+     * @param tagged if true, the sentences are tokenized and tagged by a persistent TreeTagger
+     *               process, so that ParZu only runs its parsing stage
+     * @throws IOException if the POS tagger model could not be loaded
+     */
+    public PooledParZuSentenceParser(int numberOfWorkers, boolean tagged) throws IOException {
+        this(numberOfWorkers, tagged ? new TreeTaggerSentenceChunker(true) : null);
+    }
+
+    /**
+     * Constructs a new parser.
+     * The ParZu processes are started, when they are needed for the first time.
+     * @param numberOfWorkers the number of ParZu processes
+     * @param tagger the chunker, which tokenizes and tags the sentences, or null, if the raw
+     *               sentences should be sent to ParZu
+     */
+    public PooledParZuSentenceParser(int numberOfWorkers, SentenceChunker tagger) {
+        this(numberOfWorkers, tagger, PARZU_HOME);
+    }
+
+    /**
+     * Constructs a new parser, which loads the ParZu Python module from the given directory.
+     * @param numberOfWorkers the number of ParZu processes
+     * @param tagger the chunker, which tokenizes and tags the sentences, or null
+     * @param parzuHome the directory of ParZu
+     */
+    PooledParZuSentenceParser(int numberOfWorkers, SentenceChunker tagger, String parzuHome) {
+        super(tagger);
+        if (numberOfWorkers < 1) {
+            throw new IllegalArgumentException("numberOfWorkers < 1: " + numberOfWorkers);
+        }
+        this.workers = new ArrayList<>(numberOfWorkers);
+        this.idleWorkers = new ArrayBlockingQueue<>(numberOfWorkers);
+        for (int i = 0; i < numberOfWorkers; i++) {
+            CoProcess worker = new CoProcess(
+                new String[]{"python", "-u", "-c", WORKER_SCRIPT, String.valueOf(parzuHome),
+                             getInputFormat()},
+                SENTENCE_DELIMITER);
+            this.workers.add(worker);
+            this.idleWorkers.add(worker);
+        }
+    }
+
+    /**
+     * Get the dependency parse tree strings (ConLL format) of the given lines using an idle ParZu
+     * process. Waits until a process is idle, if all processes are busy.
+     *
+     * The process is killed, if it exceeds the deadline, and restarted for the next request. The
+     * deadline is reset, whenever the process finishes a sentence of a batch.
+     *
+     * @param lines the input lines
+     * @param timeout the deadline for each sentence in milliseconds, 0 for no deadline
+     * @return the dependency parse trees as string
+     * @throws de.hpi.nlp.ProcessTimeoutException if the process did not finish within the deadline
+     * @throws IOException  if the ParZu process could not be started or if the result
+     *                      could not be read
+     * @throws InterruptedException if the thread got interrupted while waiting for an idle process
+     */
+    @Override
+    protected List<String> parseLines(List<String> lines, long timeout) throws IOException, InterruptedException {
+        CoProcess worker = idleWorkers.take();
+        try {
+            return worker.call(lines, timeout, ParZuSentenceParser::isMarkerLine);
+        } finally {
+            idleWorkers.add(worker);
+        }
+    }
+
+    /**
+     * @return the number of ParZu processes
+     */
+    @Override
+    public int getConcurrency() {
+        return workers.size();
+    }
+
+    /**
+     * Stops all ParZu processes.
+     */
+    @Override
+    public void close() {
+        workers.forEach(CoProcess::close);
+    }
+}
@@ -0,0 +1,198 @@
+package de.hpi.nlp.dependency_parse_tree;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Converts a dependency parse with the TIGER labels, e.g. the output of the mate-tools parser,
+ * into the ConLL format of ParZu.
+ * The extractors of Dep ConIE rely on the labels (subj, obja, pp, kon, cj, ...) and the coarse
+ * POS tags (V, N, ART, PRO, PREP, ...) of ParZu. Punctuation is attached to the root with the
+ * label 'root', as ParZu does.
+ */
+public class TigerToParZuConverter {
+
+    private static final Set<String> PREPOSITIONS = new HashSet<>(Arrays.asList(
+        "APPR", "APPRART", "APPO", "APZR"));
+    private static final Set<String> DETERMINERS = new HashSet<>(Arrays.asList(
+        "ART", "PDAT", "PIAT", "PIDAT", "PPOSAT", "PRELAT", "PWAT"));
+    private static final Set<String> PRONOUNS = new HashSet<>(Arrays.asList(
+        "PDS", "PIS", "PPER", "PPOSS", "PRELS", "PRF", "PWS"));
+
+    /**
+     * Converts the given dependency parse into the ConLL format of ParZu.
+     * All arrays have one entry per token. The heads refer to the position of the head token
+     * starting with 1, 0 is the root.
+     * @param forms the tokens
+     * @param lemmas the lemmas
+     * @param posTags the STTS POS tags
+     * @param morphology the morphological features, can be null
+     * @param heads the heads
+     * @param labels the TIGER labels
+     * @return the lines in the ConLL format of ParZu
+     */
+    public static List<String> toConll(String[] forms, String[] lemmas, String[] posTags,
+                                       String[] morphology, int[] heads, String[] labels) {
+        List<String> lines = new ArrayList<>(forms.length);
+        for (int i = 0; i < forms.length; i++) {
+            int head = heads[i];
+            String label;
+            if (posTags[i].startsWith("$")) {
+                head = 0;
+                label = "root";
+            } else if (head <= 0 || head > forms.length) {
+                head = 0;
+                label = "root";
+            } else {
+                label = convertLabel(labels[i], posTags[i], posTags[head - 1],
+                                     hasChildWithPos(i, "PTKZU", posTags, heads));
+            }
+
+            String feats = morphology == null || morphology[i] == null || morphology[i].isEmpty()
+                ? "_" : morphology[i];
+            String lemma = lemmas == null || lemmas[i] == null || lemmas[i].isEmpty()
+                ? forms[i] : lemmas[i];
+            lines.add((i + 1) + "\t" + forms[i] + "\t" + lemma + "\t" + convertPos(posTags[i])
+                      + "\t" + posTags[i] + "\t" + feats + "\t" + head + "\t" + label + "\t_\t_");
+        }
+        return lines;
+    }
+
+    /**
+     * Converts a STTS POS tag into the coarse POS tag of ParZu.
+     * @param pos the STTS POS tag
+     * @return the coarse POS tag
+     */
+    public static String convertPos(String pos) {
+        if (pos.startsWith("V")) {
+            return "V";
+        } else if (pos.equals("NN") || pos.equals("NE")) {
+            return "N";
+        } else if (DETERMINERS.contains(pos)) {
+            return "ART";
+        } else if (PRONOUNS.contains(pos)) {
+            return "PRO";
+        } else if (PREPOSITIONS.contains(pos)) {
+            return "PREP";
+        } else if (pos.equals("ADJD")) {
+            return "ADV";
+        }
+        return pos;
+    }
+
+    /**
+     * Converts a TIGER label into the label of ParZu.
+     * @param label the TIGER label
+     * @param pos the STTS POS tag of the token
+     * @param headPos the STTS POS tag of the head of the token
+     * @param hasZu true, if the token has the infinitive particle 'zu' as child
+     * @return the label of ParZu
+     */
+    public static String convertLabel(String label, String pos, String headPos, boolean hasZu) {
+        switch (label) {
+            case "--":
+            case "ROOT":
+                return "root";
+            case "SB":
+                return "subj";
+            case "OA":
+            case "OA2":
+                return "obja";
+            case "DA":
+                return "objd";
+            case "OG":
+                return "objg";
+            case "OP":
+                return "objp";
+            case "OC":
+                // verb complexes are attached with 'aux', infinitives with 'zu' with 'obji' and
+                // other clauses with 'objc'
+                if (pos.startsWith("V") && headPos.startsWith("V")) {
+                    if (hasZu || pos.equals("VVIZU")) {
+                        return "obji";
+                    }
+                    if (pos.endsWith("PP") || pos.endsWith("INF")) {
+                        return "aux";
+                    }
+                }
+                return "objc";
+            case "MO":
+                if (PREPOSITIONS.contains(pos) || pos.equals("PROAV")) {
+                    return "pp";
+                } else if (pos.startsWith("V")) {
+                    return "neb";
+                }
+                return "adv";
+            case "MNR":
+            case "PG":
+            case "SBP":
+            case "CVC":
+                return "pp";
+            case "NK":
+                if (PREPOSITIONS.contains(headPos)) {
+                    return "pn";
+                } else if (DETERMINERS.contains(pos)) {
+                    return "det";
+                } else if (pos.equals("NN") || pos.equals("NE")) {
+                    return "app";
+                }
+                return "attr";
+            case "AG":
+                return "gmod";
+            case "APP":
+            case "PNC":
+                return "app";
+            case "CD":
+            case "JU":
+                return "kon";
+            case "CJ":
+            case "CM":
+                return "cj";
+            case "CC":
+                return "kom";
+            case "CP":
+                return "konj";
+            case "RC":
+                return "rel";
+            case "PD":
+            case "SP":
+                return "pred";
+            case "SVP":
+                return "avz";
+            case "NG":
+            case "AVC":
+            case "RS":
+                return "adv";
+            case "PM":
+            case "AC":
+                return "part";
+            case "EP":
+            case "PH":
+                return "expl";
+            case "DH":
+            case "VO":
+                return "vok";
+            case "RE":
+            case "DM":
+                return "par";
+            case "ADC":
+            case "AMS":
+            case "UC":
+                return "attr";
+            default:
+                return label.toLowerCase();
+        }
+    }
+
+    private static boolean hasChildWithPos(int token, String pos, String[] posTags, int[] heads) {
+        for (int i = 0; i < heads.length; i++) {
+            if (heads[i] == token + 1 && posTags[i].equals(pos)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
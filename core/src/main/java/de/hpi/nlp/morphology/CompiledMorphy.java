@@ -0,0 +1,103 @@
+package de.hpi.nlp.morphology;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+
+/**
+ * Class, which checks if a substantive is in nominative using the "Deutsches Morpholgie-Lexikon".
+ * In contrast to {@link Morphy}, the lexicon is not read into the heap, but compiled by
+ * {@link MorphyCompiler} and memory-mapped. The forms are looked up by a binary search, so that
+ * the lexicon is available at once and can be shared by several processes.
+ */
+public class CompiledMorphy implements MorphologyLexicon {
+
+    private final int numberOfForms;
+    private final int offsetsStart;
+    private final int casesStart;
+    private final int formsStart;
+    private final ByteBuffer buffer;
+
+    /**
+     * Constructs a new lexicon.
+     * @param file the compiled lexicon
+     * @throws IOException if the lexicon could not be read
+     */
+    public CompiledMorphy(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+
+        if (buffer.getInt(0) != MorphyCompiler.MAGIC || buffer.getInt(4) != MorphyCompiler.VERSION) {
+            throw new IOException("Not a compiled lexicon: " + file);
+        }
+        numberOfForms = buffer.getInt(8);
+        offsetsStart = 16;
+        casesStart = offsetsStart + 4 * (numberOfForms + 1);
+        formsStart = casesStart + numberOfForms;
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return find(word) >= 0;
+    }
+
+    @Override
+    public boolean isNominative(String word) {
+        int i = find(word);
+        if (i < 0) {
+            throw new NoSuchElementException("Key not found: " + word);
+        }
+        return (buffer.get(casesStart + i) & MorphyCompiler.NOMINATIVE) != 0;
+    }
+
+    /**
+     * @return the number of forms in the lexicon
+     */
+    public int size() {
+        return numberOfForms;
+    }
+
+    /**
+     * @param word the word
+     * @return the index of the word or -1, if the lexicon does not contain the word
+     */
+    private int find(String word) {
+        byte[] key = word.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = numberOfForms - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares the form at the given index with the key by their unsigned byte values. Only
+     * absolute reads are used, so that the buffer can be shared by multiple threads.
+     */
+    private int compare(int i, byte[] key) {
+        int start = formsStart + buffer.getInt(offsetsStart + 4 * i);
+        int length = formsStart + buffer.getInt(offsetsStart + 4 * (i + 1)) - start;
+        int n = Math.min(length, key.length);
+        for (int j = 0; j < n; j++) {
+            int cmp = Integer.compare(buffer.get(start + j) & 0xFF, key[j] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+}
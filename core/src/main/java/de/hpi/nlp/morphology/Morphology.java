@@ -1,7 +1,25 @@
 package de.hpi.nlp.morphology;
 
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
 public interface Morphology {
 
     boolean isNominative(String word);
 
+    /**
+     * Checks for each of the given words, if it can be in nominative. Implementations can
+     * override this method to look up all words at once.
+     * @param words the words
+     * @return a map from each word to true, if it can be in nominative, false otherwise
+     */
+    default Map<String, Boolean> isNominative(Collection<String> words) {
+        Map<String, Boolean> nominative = new HashMap<>();
+        for (String word : words) {
+            nominative.put(word, isNominative(word));
+        }
+        return nominative;
+    }
+
 }
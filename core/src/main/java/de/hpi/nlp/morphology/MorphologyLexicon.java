@@ -0,0 +1,25 @@
+package de.hpi.nlp.morphology;
+
+/**
+ * A morphology, which is based on a lexicon of word forms, e.g. the "Deutsches
+ * Morphologie-Lexikon". Words, which are not in the lexicon, have to be analysed by another
+ * morphology.
+ */
+public interface MorphologyLexicon extends Morphology {
+
+    /**
+     * Checks if the lexicon contains the given word.
+     * @param word the word
+     * @return true, if the lexicon contains the word, false otherwise
+     */
+    boolean contains(String word);
+
+    /**
+     * Checks if the given word is in nominative
+     * @param word the word
+     * @return true, if the word is in nominative, false otherwise
+     * @throws java.util.NoSuchElementException if the lexicon does not contain the word
+     */
+    @Override
+    boolean isNominative(String word);
+}
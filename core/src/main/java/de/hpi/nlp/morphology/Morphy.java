@@ -9,11 +9,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.function.BiConsumer;
 
 /**
  * Class, which checks if a substantive is in nominative using the "Deutsches Morpholgie-Lexikon".
  */
-public class Morphy implements Morphology {
+public class Morphy implements MorphologyLexicon {
 
     private InputStream inputStream;
     private boolean debug = false;
@@ -36,6 +37,19 @@ public class Morphy implements Morphology {
      */
     private void initialize() throws IOException {
         if (debug) System.out.println("Reading \"Deutsches Morphologie-Lexikon\" ... ");
+        read(inputStream, this.lexicon::put);
+        if (debug) System.out.println("Done.");
+    }
+
+    /**
+     * Reads the "Deutsches Morphologie-Lexikon" and passes each form with its substantive entries
+     * to the consumer. A form can occur multiple times, the last occurrence replaces the earlier
+     * ones in the lexicon.
+     * @param inputStream the lexicon in the XML format
+     * @param consumer the consumer of the form and its substantive entries, which can be empty
+     * @throws IOException if the lexicon could not be read
+     */
+    static void read(InputStream inputStream, BiConsumer<String, List<Subject>> consumer) throws IOException {
         BufferedReader br = new BufferedReader(new InputStreamReader(inputStream));
 
         // skip header
@@ -61,16 +75,22 @@ public class Morphy implements Morphology {
                 line = br.readLine();
             }
 
-            this.lexicon.put(form, subjects);
+            consumer.accept(form, subjects);
         }
-        if (debug) System.out.println("Done.");
+    }
+
+    @Override
+    public boolean contains(String word) {
+        return this.lexicon.containsKey(word);
     }
 
     /**
      * Checks if the given word is in nominative
      * @param word the word
      * @return true, if the word is in nominative, false otherwise
+     * @throws NoSuchElementException if the lexicon does not contain the word
      */
+    @Override
     public boolean isNominative(String word) {
         if (this.lexicon.containsKey(word)) {
             List<Subject> subjects = this.lexicon.get(word);
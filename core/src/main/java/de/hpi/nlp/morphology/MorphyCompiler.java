@@ -0,0 +1,136 @@
+package de.hpi.nlp.morphology;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles the "Deutsches Morphologie-Lexikon" in the XML format into the binary format, which is
+ * memory-mapped by {@link CompiledMorphy}.
+ *
+ * Each form is stored with a bit mask of the cases of its substantive entries. As in
+ * {@link Morphy}, the last occurrence of a form replaces the earlier ones.
+ *
+ * Binary format (big-endian):
+ * <pre>
+ * int magic, int version
+ * int numberOfForms, int numberOfBytes
+ * int[numberOfForms + 1] offset of each form in the UTF-8 bytes
+ * byte[numberOfForms] case bit mask of each form
+ * byte[numberOfBytes] UTF-8 bytes of the forms, sorted by their unsigned byte values
+ * </pre>
+ */
+public class MorphyCompiler {
+
+    static final int MAGIC = 0x4D4F5250;
+    static final int VERSION = 1;
+
+    static final byte NOMINATIVE = 1;
+    static final byte GENITIVE = 2;
+    static final byte DATIVE = 4;
+    static final byte ACCUSATIVE = 8;
+
+    /**
+     * Compiles the given lexicon.
+     * Usage: MorphyCompiler &lt;morphy.xml&gt; &lt;morphy.bin&gt;
+     * @param args the input and the output file
+     * @throws IOException if the files could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: MorphyCompiler <morphy.xml> <morphy.bin>");
+            return;
+        }
+        compile(new FileInputStream(args[0]), new File(args[1]));
+    }
+
+    /**
+     * Reads the lexicon in the XML format and writes it in the binary format.
+     * @param in  the lexicon in the XML format
+     * @param out the output file
+     * @throws IOException if the lexicon could not be read or written
+     */
+    public static void compile(InputStream in, File out) throws IOException {
+        Map<String, Byte> cases = new HashMap<>();
+        Morphy.read(in, (form, subjects) -> cases.put(form, getCases(subjects)));
+        in.close();
+
+        List<byte[]> forms = new ArrayList<>(cases.size());
+        for (String form : cases.keySet()) {
+            forms.add(form.getBytes(StandardCharsets.UTF_8));
+        }
+        forms.sort(MorphyCompiler::compare);
+
+        int numberOfBytes = 0;
+        for (byte[] form : forms) {
+            numberOfBytes += form.length;
+        }
+
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)));
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+        dos.writeInt(forms.size());
+        dos.writeInt(numberOfBytes);
+
+        int offset = 0;
+        for (byte[] form : forms) {
+            dos.writeInt(offset);
+            offset += form.length;
+        }
+        dos.writeInt(offset);
+
+        for (byte[] form : forms) {
+            dos.writeByte(cases.get(new String(form, StandardCharsets.UTF_8)));
+        }
+        for (byte[] form : forms) {
+            dos.write(form);
+        }
+        dos.close();
+    }
+
+    private static byte getCases(List<Subject> subjects) {
+        byte cases = 0;
+        for (Subject subject : subjects) {
+            for (String kasus : subject.getKasus()) {
+                switch (kasus) {
+                    case "NOM":
+                        cases |= NOMINATIVE;
+                        break;
+                    case "GEN":
+                        cases |= GENITIVE;
+                        break;
+                    case "DAT":
+                        cases |= DATIVE;
+                        break;
+                    case "AKK":
+                        cases |= ACCUSATIVE;
+                        break;
+                }
+            }
+        }
+        return cases;
+    }
+
+    /**
+     * Compares two byte arrays by their unsigned byte values.
+     */
+    static int compare(byte[] a, byte[] b) {
+        int n = Math.min(a.length, b.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = Integer.compare(a[i] & 0xFF, b[i] & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(a.length, b.length);
+    }
+}
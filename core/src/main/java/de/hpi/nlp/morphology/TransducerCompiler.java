@@ -0,0 +1,221 @@
+package de.hpi.nlp.morphology;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compiles a finite-state transducer in the AT&T text format into the binary format, which is
+ * memory-mapped by {@link TransducerMorphology}.
+ *
+ * The text format is the output of the SFST tool fst-print. Each line is either an arc
+ * <code>source target upper lower</code> or a final state <code>state</code>. The upper level
+ * contains the analysis, the lower level the surface form. The symbol <code>&lt;&gt;</code> is the
+ * empty symbol and state 0 is the start state.
+ *
+ * fst-print only reads transducers in the standard SFST format (<code>.a</code>). Zmorge is
+ * distributed in the compact format (<code>.ca</code>), which is used by fst-infl2 and cannot be
+ * converted back. The standard transducer is built from the Zmorge sources with the SFST
+ * compiler, before the Zmorge build compacts it:
+ * <pre>
+ * fst-compiler-utf8 smor.fst zmorge.a
+ * fst-print zmorge.a &gt; zmorge.att
+ * java de.hpi.nlp.morphology.TransducerCompiler zmorge.att zmorge.bin
+ * </pre>
+ * Binary transducers, e.g. a <code>.ca</code> file, are rejected with an {@link IOException}.
+ *
+ * Binary format (big-endian):
+ * <pre>
+ * int magic, int version
+ * int numberOfSymbols, for each symbol: int length, UTF-8 bytes
+ * int numberOfStates, int numberOfArcs
+ * int[numberOfStates + 1] index of the first arc of each state
+ * int[(numberOfStates + 31) / 32] bit set of the final states
+ * int[3 * numberOfArcs] lower symbol, upper symbol and target of each arc, sorted by source state
+ *                       and lower symbol
+ * </pre>
+ */
+public class TransducerCompiler {
+
+    static final int MAGIC = 0x5A4D4F52;
+    static final int VERSION = 1;
+    static final String EPSILON = "<>";
+
+    private final Map<String, Integer> symbols = new HashMap<>();
+    private final List<String> symbolList = new ArrayList<>();
+
+    private int numberOfStates = 0;
+    private int numberOfArcs = 0;
+    private int[] arcs = new int[4 * 1024];
+    private boolean[] finalStates = new boolean[1024];
+
+    public TransducerCompiler() {
+        // the empty symbol has always the id 0
+        getSymbol(EPSILON);
+    }
+
+    /**
+     * Compiles the given transducer.
+     * Usage: TransducerCompiler &lt;transducer.att&gt; &lt;transducer.bin&gt;
+     * @param args the input and the output file
+     * @throws IOException if the files could not be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: TransducerCompiler <transducer.att> <transducer.bin>");
+            return;
+        }
+        if (args[0].endsWith(".a") || args[0].endsWith(".ca")) {
+            throw new IOException(args[0] + " is a binary SFST transducer, export it with fst-print"
+                                  + " first (a .ca transducer has to be rebuilt as .a, see the"
+                                  + " documentation of TransducerCompiler)");
+        }
+        new TransducerCompiler().compile(new FileInputStream(args[0]), new File(args[1]));
+    }
+
+    /**
+     * Reads the transducer in the AT&T text format and writes it in the binary format.
+     * @param in  the transducer in the AT&T text format
+     * @param out the output file
+     * @throws IOException if the transducer could not be read or written, or if it is not in the
+     * AT&amp;T text format
+     */
+    public void compile(InputStream in, File out) throws IOException {
+        read(in);
+        write(out);
+    }
+
+    private void read(InputStream in) throws IOException {
+        BufferedReader br = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        String line;
+        int lineNum = 0;
+        while ((line = br.readLine()) != null) {
+            lineNum++;
+            if (line.isEmpty()) continue;
+            String[] columns = line.split("\t");
+            try {
+                if (columns.length >= 4) {
+                    int source = Integer.parseInt(columns[0]);
+                    int target = Integer.parseInt(columns[1]);
+                    addArc(source, target, getSymbol(unescape(columns[3])), getSymbol(unescape(columns[2])));
+                } else {
+                    // final state, optionally with a weight
+                    int state = Integer.parseInt(columns[0]);
+                    ensureState(state);
+                    finalStates[state] = true;
+                }
+            } catch (NumberFormatException e) {
+                br.close();
+                throw new IOException("Line " + lineNum + " is not in the AT&T text format of fst-print;"
+                                      + " binary SFST transducers (.a, .ca) cannot be compiled directly,"
+                                      + " see the documentation of TransducerCompiler", e);
+            }
+        }
+        br.close();
+    }
+
+    private void write(File out) throws IOException {
+        // sort the arcs by source state and lower symbol
+        Integer[] order = new Integer[numberOfArcs];
+        for (int i = 0; i < numberOfArcs; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int cmp = Integer.compare(arcs[4 * a], arcs[4 * b]);
+            return cmp != 0 ? cmp : Integer.compare(arcs[4 * a + 2], arcs[4 * b + 2]);
+        });
+
+        DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(out)));
+        dos.writeInt(MAGIC);
+        dos.writeInt(VERSION);
+
+        dos.writeInt(symbolList.size());
+        for (String symbol : symbolList) {
+            byte[] bytes = symbol.getBytes(StandardCharsets.UTF_8);
+            dos.writeInt(bytes.length);
+            dos.write(bytes);
+        }
+
+        dos.writeInt(numberOfStates);
+        dos.writeInt(numberOfArcs);
+
+        // index of the first arc of each state
+        int arc = 0;
+        for (int state = 0; state <= numberOfStates; state++) {
+            while (arc < numberOfArcs && arcs[4 * order[arc]] < state) {
+                arc++;
+            }
+            dos.writeInt(arc);
+        }
+
+        for (int i = 0; i < (numberOfStates + 31) / 32; i++) {
+            int bits = 0;
+            for (int j = 0; j < 32 && 32 * i + j < numberOfStates; j++) {
+                if (finalStates[32 * i + j]) {
+                    bits |= 1 << j;
+                }
+            }
+            dos.writeInt(bits);
+        }
+
+        for (int i = 0; i < numberOfArcs; i++) {
+            int a = order[i];
+            dos.writeInt(arcs[4 * a + 2]);
+            dos.writeInt(arcs[4 * a + 3]);
+            dos.writeInt(arcs[4 * a + 1]);
+        }
+        dos.close();
+    }
+
+    private void addArc(int source, int target, int lower, int upper) {
+        ensureState(Math.max(source, target));
+        if (4 * numberOfArcs + 4 > arcs.length) {
+            arcs = Arrays.copyOf(arcs, 2 * arcs.length);
+        }
+        arcs[4 * numberOfArcs] = source;
+        arcs[4 * numberOfArcs + 1] = target;
+        arcs[4 * numberOfArcs + 2] = lower;
+        arcs[4 * numberOfArcs + 3] = upper;
+        numberOfArcs++;
+    }
+
+    private void ensureState(int state) {
+        if (state >= finalStates.length) {
+            finalStates = Arrays.copyOf(finalStates, Math.max(2 * finalStates.length, state + 1));
+        }
+        numberOfStates = Math.max(numberOfStates, state + 1);
+    }
+
+    private int getSymbol(String symbol) {
+        Integer id = symbols.get(symbol);
+        if (id == null) {
+            id = symbolList.size();
+            symbols.put(symbol, id);
+            symbolList.add(symbol);
+        }
+        return id;
+    }
+
+    /**
+     * fst-print escapes characters with a special meaning, e.g. the colon or the space, by a
+     * backslash.
+     */
+    private static String unescape(String symbol) {
+        if (symbol.length() == 2 && symbol.charAt(0) == '\\') {
+            return symbol.substring(1);
+        }
+        return symbol;
+    }
+}
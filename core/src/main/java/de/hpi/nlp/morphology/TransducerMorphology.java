@@ -0,0 +1,169 @@
+package de.hpi.nlp.morphology;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class, which checks if a substantive is in nominative using a transducer, which is
+ * memory-mapped and analyses words without an external process.
+ * The transducer has to be compiled by {@link TransducerCompiler} first, e.g. from the zmorge
+ * transducer. The compact zmorge transducer (<code>.ca</code>), which is used by
+ * {@link ZmorgeMorphology}, cannot be read; see {@link TransducerCompiler} for how to build the
+ * input of the compiler.
+ */
+public class TransducerMorphology implements Morphology {
+
+    // flags of the analysis symbols
+    private static final int NOMINATIVE = 1;
+    private static final int OLD = 2;
+
+    // the maximum number of configurations, which are explored for a word
+    private static final int MAX_CONFIGURATIONS = 100000;
+
+    private final Map<Character, Integer> surfaceSymbols = new HashMap<>();
+    private final byte[] symbolFlags;
+    private final int numberOfStates;
+    private final IntBuffer firstArcs;
+    private final IntBuffer finalStates;
+    private final IntBuffer arcs;
+
+    /**
+     * Constructs a new morphology.
+     * @param file the compiled transducer
+     * @throws IOException if the transducer could not be read
+     */
+    public TransducerMorphology(File file) throws IOException {
+        ByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length());
+        }
+
+        if (buffer.remaining() < 8 || buffer.getInt() != TransducerCompiler.MAGIC || buffer.getInt() != TransducerCompiler.VERSION) {
+            throw new IOException("Not a compiled transducer: " + file + ". SFST transducers, e.g."
+                                  + " the zmorge .ca file, have to be compiled by TransducerCompiler first");
+        }
+
+        int numberOfSymbols = buffer.getInt();
+        symbolFlags = new byte[numberOfSymbols];
+        for (int i = 0; i < numberOfSymbols; i++) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            String symbol = new String(bytes, StandardCharsets.UTF_8);
+            if (symbol.length() == 1) {
+                surfaceSymbols.put(symbol.charAt(0), i);
+            }
+            if (symbol.equals("<Nom>")) {
+                symbolFlags[i] = NOMINATIVE;
+            } else if (symbol.equals("<Old>")) {
+                symbolFlags[i] = OLD;
+            }
+        }
+
+        numberOfStates = buffer.getInt();
+        int numberOfArcs = buffer.getInt();
+        firstArcs = slice(buffer, numberOfStates + 1);
+        finalStates = slice(buffer, (numberOfStates + 31) / 32);
+        arcs = slice(buffer, 3 * numberOfArcs);
+    }
+
+    private static IntBuffer slice(ByteBuffer buffer, int length) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(4 * length);
+        buffer.position(buffer.position() + 4 * length);
+        return slice.asIntBuffer();
+    }
+
+    /**
+     * Checks if the given word can be in nominative, i.e. if the transducer has an analysis of
+     * the word, which contains the nominative tag and not the tag for old spelling.
+     * @param word the word
+     * @return true, if the word can be in nominative, false otherwise
+     */
+    @Override
+    public boolean isNominative(String word) {
+        if (numberOfStates == 0) {
+            return false;
+        }
+
+        int[] input = new int[word.length()];
+        for (int i = 0; i < word.length(); i++) {
+            Integer symbol = surfaceSymbols.get(word.charAt(i));
+            if (symbol == null) {
+                return false;
+            }
+            input[i] = symbol;
+        }
+
+        // depth-first search over all configurations (state, position in word, flags)
+        Set<Long> visited = new HashSet<>();
+        Deque<long[]> stack = new ArrayDeque<>();
+        stack.push(new long[]{0, 0, 0});
+        while (!stack.isEmpty() && visited.size() < MAX_CONFIGURATIONS) {
+            long[] configuration = stack.pop();
+            int state = (int) configuration[0];
+            int position = (int) configuration[1];
+            int flags = (int) configuration[2];
+            if (!visited.add(((long) state << 32) | ((long) position << 2) | flags)) {
+                continue;
+            }
+
+            if (position == input.length && isFinal(state) && flags == NOMINATIVE) {
+                return true;
+            }
+
+            int start = firstArcs.get(state);
+            int end = firstArcs.get(state + 1);
+            // arcs with the empty lower symbol come first
+            for (int arc = start; arc < end && arcs.get(3 * arc) == 0; arc++) {
+                push(stack, arc, position, flags);
+            }
+            if (position < input.length) {
+                for (int arc = findArc(start, end, input[position]);
+                     arc < end && arcs.get(3 * arc) == input[position]; arc++) {
+                    push(stack, arc, position + 1, flags);
+                }
+            }
+        }
+        return false;
+    }
+
+    private void push(Deque<long[]> stack, int arc, int position, int flags) {
+        int upper = arcs.get(3 * arc + 1);
+        int target = arcs.get(3 * arc + 2);
+        stack.push(new long[]{target, position, flags | symbolFlags[upper]});
+    }
+
+    private boolean isFinal(int state) {
+        return (finalStates.get(state / 32) & (1 << (state % 32))) != 0;
+    }
+
+    /**
+     * Finds the first arc with the given lower symbol using binary search.
+     * @return the index of the first arc with a lower symbol, which is not less than the given
+     * symbol
+     */
+    private int findArc(int start, int end, int symbol) {
+        int low = start;
+        int high = end;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (arcs.get(3 * mid) < symbol) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -1,70 +1,237 @@
 package de.hpi.nlp.morphology;
 
 
-import java.io.BufferedReader;
+import de.hpi.nlp.CoProcess;
+import de.hpi.nlp.ExternalProcess;
+import de.hpi.nlp.ProcessTimeoutException;
+import de.hpi.nlp.Quarantine;
+
+import java.io.Closeable;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Class, which checks if a substantive is in nominative using zmorge.
+ * fst-infl2 is killed, if it exceeds its deadline. Words, which exceeded the deadline repeatedly,
+ * are quarantined and not nominative.
  */
-public class ZmorgeMorphology implements Morphology {
+public class ZmorgeMorphology implements Morphology, Closeable {
 
     private static final String ZMORGE_FILE = "zmorge-20150315-smor_newlemma.ca";
 
+    // fst-infl2 echos each input word with this prefix before its analyses
+    private static final String WORD_PREFIX = "> ";
+
+    // A word, which has no analysis. It marks the end of a request to the persistent fst-infl2
+    // process, which answers it with a 'no result' line.
+    private static final String END_OF_REQUEST = "ZMORGEENDOFREQUEST";
+
+    // the default deadline for analysing a word in milliseconds
+    public static final long DEFAULT_TIMEOUT = 5000;
+    // the maximum number of words, whose results are kept after they were analysed in advance
+    public static final int MAX_PRECOMPUTED = 100000;
+
+    private CoProcess fstInfl;
+    private long timeout = DEFAULT_TIMEOUT;
+    private final Quarantine quarantine = new Quarantine();
+
+    // results of words, which were analysed in advance; the least recently used results are
+    // removed, so that the results of a long stream of batches do not fill the memory
+    private final Map<String, Boolean> precomputed = Collections.synchronizedMap(
+        new LinkedHashMap<String, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > MAX_PRECOMPUTED;
+            }
+        });
+
+    /**
+     * Constructs a new morphology, which runs fst-infl2 for every request.
+     */
+    public ZmorgeMorphology() {
+        this(false);
+    }
+
+    /**
+     * Constructs a new morphology.
+     * @param persistent if true, a single fst-infl2 process is kept running and the words are
+     *                   sent to its stdin, so that the transducer is loaded only once. fst-infl2
+     *                   is run for every request, if stdbuf is not available.
+     */
+    public ZmorgeMorphology(boolean persistent) {
+        // fst-infl2 buffers its output, if it does not write to a terminal, so that the answer to
+        // a request would never arrive without stdbuf
+        if (persistent && ExternalProcess.isLineBufferingAvailable()) {
+            this.fstInfl = new CoProcess(
+                ExternalProcess.lineBuffered("fst-infl2", getZmorgePath()),
+                END_OF_REQUEST, "no result for " + END_OF_REQUEST, null, 0);
+        } else if (persistent) {
+            System.out.println("Zmorge: stdbuf not found, fst-infl2 is started for every request");
+        }
+    }
+
     @Override
     public boolean isNominative(String word) {
+        List<String> words = new ArrayList<>();
+        words.add(word);
+        return isNominative(words).get(word);
+    }
+
+    /**
+     * Analyses the given words with a single run of fst-infl2 and keeps the results, so that
+     * later requests for these words do not need to run fst-infl2. At most
+     * {@link #MAX_PRECOMPUTED} results are kept.
+     * @param words the words
+     */
+    public void precompute(Collection<String> words) {
         try {
-            List<String> output = runZmorge(word);
-            // check if word can be nominative
-            for (String line : output) {
+            precomputed.putAll(analyse(words));
+        } catch (IOException | InterruptedException e) {
+            // the words are analysed again, when they are requested
+        }
+    }
+
+    /**
+     * Removes all results of words, which were analysed in advance.
+     */
+    public void clearPrecomputed() {
+        precomputed.clear();
+    }
+
+    /**
+     * Checks for each of the given words, if it can be in nominative.
+     * All words, which were not analysed in advance, are analysed by a single run of fst-infl2.
+     * @param words the words
+     * @return a map from each word to true, if it can be in nominative, false otherwise
+     */
+    @Override
+    public Map<String, Boolean> isNominative(Collection<String> words) {
+        Map<String, Boolean> nominative = new HashMap<>();
+        for (String word : words) {
+            nominative.put(word, false);
+        }
+        try {
+            nominative.putAll(analyse(words));
+        } catch (IOException | InterruptedException e) {
+            // the words are not nominative
+        }
+        return nominative;
+    }
+
+    /**
+     * Checks for each of the given words, if it can be in nominative.
+     * @param words the words
+     * @return a map from each word to true, if it can be in nominative, false otherwise
+     * @throws IOException if zmorge could not be run
+     * @throws InterruptedException if the process gets interrupted
+     */
+    private Map<String, Boolean> analyse(Collection<String> words) throws IOException, InterruptedException {
+        Map<String, Boolean> nominative = new HashMap<>();
+        // fst-infl2 reads one word per line
+        List<String> distinctWords = new ArrayList<>();
+        for (String word : new LinkedHashSet<>(words)) {
+            Boolean result = precomputed.get(word);
+            if (result != null) {
+                nominative.put(word, result);
+                continue;
+            }
+            nominative.put(word, false);
+            if (!word.trim().isEmpty() && !word.matches(".*[\\r\\n].*") && !quarantine.contains(word)) {
+                distinctWords.add(word);
+            }
+        }
+        if (distinctWords.isEmpty()) {
+            return nominative;
+        }
+
+        List<String> output;
+        try {
+            output = runZmorge(distinctWords);
+        } catch (ProcessTimeoutException e) {
+            if (distinctWords.size() == 1) {
+                quarantine.recordFailure(distinctWords.get(0));
+                throw e;
+            }
+            // analyse the words one by one, so that the word, which caused the timeout, is found
+            for (String word : distinctWords) {
+                try {
+                    nominative.putAll(analyse(Collections.singletonList(word)));
+                } catch (ProcessTimeoutException we) {
+                    // the word is not nominative
+                }
+            }
+            return nominative;
+        }
+        // the analyses of a word follow the echo of the word
+        int n = -1;
+        for (String line : output) {
+            if (line.startsWith(WORD_PREFIX)) {
+                n++;
+            } else if (n >= 0 && n < distinctWords.size()) {
+                // check if word can be nominative
                 if (line.contains("<Nom>") && !line.contains("<Old>")) {
-                    return true;
+                    nominative.put(distinctWords.get(n), true);
                 }
             }
-            return false;
-        } catch (IOException | InterruptedException e) {
-            return false;
         }
+        return nominative;
     }
 
     /**
      * Run zmorge.
-     * @param word the word
+     * @param words the words
      * @return the output of zmorge
+     * @throws ProcessTimeoutException if fst-infl2 did not finish within the deadline
      * @throws IOException if the library file could not be read
      * @throws InterruptedException if the process gets interrupted
      */
-    private List<String> runZmorge(String word) throws IOException, InterruptedException {
-        String command = "echo \"" + word + "\" | fst-infl2 " + getZmorgePath();
-        Process p = Runtime.getRuntime().exec(new String[]{"/bin/sh", "-c", command});
-
-        BufferedReader stdInput = new BufferedReader(new InputStreamReader(p.getInputStream()));
-        p.waitFor();
-
-        List<String> output = new ArrayList<>();
-        String line;
-        // skip the first line
-        stdInput.readLine();
-        while ((line = stdInput.readLine()) != null) {
-            output.add(line);
+    private List<String> runZmorge(List<String> words) throws IOException, InterruptedException {
+        if (fstInfl != null) {
+            return fstInfl.call(words, timeout * words.size());
         }
+        return ExternalProcess.run(new String[]{"fst-infl2", getZmorgePath()}, words,
+                                   timeout * words.size());
+    }
 
-        stdInput.close();
-        p.destroy();
+    /**
+     * Sets the deadline for analysing a word. fst-infl2 is killed, if it exceeds the deadline.
+     * The deadline of a request is the deadline of a word times the number of words.
+     * @param timeout the deadline in milliseconds, 0 for no deadline
+     */
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
 
-        return output;
+    /**
+     * @return the words, which exceeded the deadline
+     */
+    public Quarantine getQuarantine() {
+        return quarantine;
+    }
+
+    /**
+     * Stops the persistent fst-infl2 process.
+     */
+    @Override
+    public void close() {
+        if (fstInfl != null) {
+            fstInfl.close();
+        }
     }
 
     /**
      * Get the path of the zmorge file.
      * @return the path
-     * @throws IOException if the file could not be found/read
      */
-    private String getZmorgePath() throws IOException {
+    private String getZmorgePath() {
         URL url = getClass().getClassLoader().getResource(ZMORGE_FILE);
         if (url != null)
             return url.getPath();
@@ -0,0 +1,52 @@
+package de.hpi.normalization;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounded cache of the lemmas of phrases. The mate-tools lemmatizer lemmatizes a token in the
+ * context of its phrase, so that the lemmas are cached for the whole phrase and not per token.
+ * The least recently used phrases are removed, if the cache is full. The cache is not
+ * thread-safe.
+ */
+class LemmaCache {
+
+    private final Map<List<String>, String[]> lemmas;
+
+    /**
+     * Constructs a new cache.
+     * @param maxSize the maximum number of phrases
+     */
+    LemmaCache(final int maxSize) {
+        this.lemmas = new LinkedHashMap<List<String>, String[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<String>, String[]> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * @param tokens the tokens of the phrase
+     * @return the lemmas of the tokens or null, if the phrase is not cached
+     */
+    String[] get(List<String> tokens) {
+        String[] phraseLemmas = lemmas.get(tokens);
+        return phraseLemmas == null ? null : phraseLemmas.clone();
+    }
+
+    /**
+     * @param tokens the tokens of the phrase
+     * @param phraseLemmas the lemmas of the tokens
+     */
+    void put(List<String> tokens, String[] phraseLemmas) {
+        // the tokens are replaced by their lemmas by the caller, so that the key is copied
+        lemmas.put(new ArrayList<>(tokens), phraseLemmas.clone());
+    }
+
+    int size() {
+        return lemmas.size();
+    }
+}
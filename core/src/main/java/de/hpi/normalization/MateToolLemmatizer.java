@@ -1,95 +1,124 @@
 package de.hpi.normalization;
 
 
+import de.hpi.util.DefaultObjects;
 import is2.data.SentenceData09;
 import is2.lemmatizer.Lemmatizer;
 import is2.util.DB;
 
-import java.io.*;
-import java.net.URL;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Lemmatizes German tokens with the mate-tools lemmatizer. The model is large, so that a single
+ * instance should be shared, see {@link DefaultObjects#getLemmatizer()}. The lemmatizer is not
+ * thread-safe, so that the calls are synchronized.
+ *
+ * The lemmas of phrases are cached. The lemmatizer lemmatizes a token in the context of its
+ * phrase, so that a phrase is only passed to the lemmatizer, if the same phrase was not lemmatized
+ * before, and the cached lemmas are the same as the lemmas of the lemmatizer.
+ */
 public class MateToolLemmatizer {
 
+    static final String MODEL_FILE = "lemma-ger-3.6.model";
+    public static final int DEFAULT_CACHE_SIZE = 100000;
+
     private Lemmatizer lemmatizer = null;
+    private final LemmaCache cache;
 
     public MateToolLemmatizer() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize the maximum number of cached phrases
+     */
+    public MateToolLemmatizer(int cacheSize) {
         DB.setDebug(false);
 
         // Load lemmatizer
-        lemmatizer = new Lemmatizer(getFilePath(), false);
+        lemmatizer = new Lemmatizer(DefaultObjects.getResourcePath(MODEL_FILE), false);
+        cache = new LemmaCache(cacheSize);
     }
 
-    public List<String> lemmatize(List<String> tokens) {
-        // convert tokens into array with 'root' element
-        SentenceData09 sent = new SentenceData09();
-        ArrayList<String> forms = new ArrayList<>();
-        forms.add("<root>");
-        for (String t : tokens) {
-            forms.add(t);
-        }
-        sent.init(forms.toArray(new String[forms.size()]));
-
-        // lemmatize
-        try {
-            sent = lemmatizer.apply(sent);
-        } catch (Exception e) {
-            return tokens;
+    /**
+     * Replaces the tokens by their lemmas.
+     * @param tokens the tokens of a phrase or sentence
+     * @return the tokens list, which contains the lemmas
+     */
+    public synchronized List<String> lemmatize(List<String> tokens) {
+        String[] plemmas = cache.get(tokens);
+        if (plemmas == null) {
+            plemmas = apply(tokens);
+            if (plemmas == null) {
+                return tokens;
+            }
+            cache.put(tokens, plemmas);
         }
 
-        for (int i = 0; i < sent.plemmas.length; i++) {
-            tokens.set(i, sent.plemmas[i]);
+        for (int i = 0; i < plemmas.length && i < tokens.size(); i++) {
+            tokens.set(i, plemmas[i]);
         }
         return tokens;
     }
 
-    public String lemmatize(String token) {
-        // convert tokens into array with 'root' element
-        SentenceData09 sent = new SentenceData09();
-        sent.init(new String[] { "<root>", token});
+    /**
+     * Lemmatizes each of the given phrases or sentences, see {@link #lemmatize(List)}. The
+     * lemmatizer is locked only once for all phrases. The mate-tools lemmatizer has no batch
+     * interface, so that each phrase, which is not cached, is still lemmatized on its own.
+     * @param phrases the tokens of each phrase, which are replaced by their lemmas
+     * @return the phrases
+     */
+    public synchronized List<List<String>> lemmatizeEach(List<List<String>> phrases) {
+        for (List<String> phrase : phrases) {
+            lemmatize(phrase);
+        }
+        return phrases;
+    }
 
-        // lemmatize
-        try {
-            sent = lemmatizer.apply(sent);
-        } catch (Exception e) {
-            return token;
+    public synchronized String lemmatize(String token) {
+        List<String> tokens = Collections.singletonList(token);
+        String[] plemmas = cache.get(tokens);
+        if (plemmas == null) {
+            plemmas = apply(tokens);
+            if (plemmas == null) {
+                return token;
+            }
+            cache.put(tokens, plemmas);
         }
 
-        if (sent.plemmas.length == 1) {
-            return sent.plemmas[0];
+        if (plemmas.length == 1) {
+            return plemmas[0];
         }
         return token;
     }
 
+    /**
+     * @return the number of cached phrases
+     */
+    public synchronized int getCacheSize() {
+        return cache.size();
+    }
 
-    private String getFilePath() {
-        String resource = "lemma-ger-3.6.model";
-        URL url = MateToolLemmatizer.class.getClassLoader().getResource(resource);
-
-        if (url == null) {
-            return "";
+    /**
+     * @return the lemmas of the lemmatizer or null, if the tokens could not be lemmatized
+     */
+    private String[] apply(List<String> tokens) {
+        // convert tokens into array with 'root' element
+        SentenceData09 sent = new SentenceData09();
+        String[] forms = new String[tokens.size() + 1];
+        forms[0] = "<root>";
+        for (int i = 0; i < tokens.size(); i++) {
+            forms[i + 1] = tokens.get(i);
         }
+        sent.init(forms);
 
-        if (url.toString().startsWith("jar:")) {
-            try {
-                InputStream input = MateToolLemmatizer.class.getClassLoader().getResourceAsStream(resource);
-                File file = File.createTempFile("tempfile", ".tmp");
-                OutputStream out = new FileOutputStream(file);
-                int read;
-                byte[] bytes = new byte[1024];
-
-                while ((read = input.read(bytes)) != -1) {
-                    out.write(bytes, 0, read);
-                }
-                file.deleteOnExit();
-
-                return file.getPath();
-            } catch (IOException ex) {
-                // Could not write tmp file
-            }
+        // lemmatize
+        try {
+            return lemmatizer.apply(sent).plemmas;
+        } catch (Exception e) {
+            return null;
         }
-        return url.getPath();
     }
 
 }
@@ -1,11 +1,13 @@
 package de.hpi.normalization;
 
 import com.google.common.base.Joiner;
+import de.hpi.nlp.chunking.ChunkedSentence;
 import de.hpi.nlp.dependency_parse_tree.Node;
 import de.hpi.nlp.extraction.chunking.ChunkedExtraction;
 import de.hpi.nlp.extraction.chunking.ChunkedRelationExtraction;
 import de.hpi.nlp.extraction.dependency_parse_tree.TreeExtraction;
 import de.hpi.sequence.SequenceException;
+import de.hpi.util.DefaultObjects;
 
 import java.util.ArrayList;
 import java.util.HashSet;
@@ -17,6 +19,8 @@ import java.util.stream.Collectors;
  * normalization procedure on a {@link ChunkedExtraction} object: <ul> <li>Removes inflection in
  * each token using the {@link MateToolLemmatizer} class.</li> <li>Removes auxiliary verbs, determiners,
  * adjectives, and adverbs.</li> </ul>
+ * If the sentence of the extraction has a lemma layer, e.g. the lemmas of TreeTagger, the lemmas
+ * are taken from this layer. The lemmatizer is only used, if a lemma is unknown.
  *
  * @author afader
  */
@@ -25,6 +29,7 @@ public class VerbalRelationNormalizer {
     private boolean stripAdj = false;
     private boolean lemmatize = false;
     private boolean replaceNNandART = false;
+    private boolean useNodeLemmas = false;
 
     private HashSet<String> ignorePosTags;
     private HashSet<String> auxVerbs;
@@ -55,6 +60,19 @@ public class VerbalRelationNormalizer {
         this.replaceNNandART = replaceNNandART;
     }
 
+    /**
+     * @param lemmatize       lemmatize the tokens?
+     * @param stripAdj        remove adjectives?
+     * @param replaceNNandART replace nouns and articles by placeholders?
+     * @param useNodeLemmas   use the lemmas of the parser for dependency parse tree extractions
+     *                        instead of the lemmatizer? Tokens without a lemma are kept.
+     */
+    public VerbalRelationNormalizer(boolean lemmatize, boolean stripAdj, boolean replaceNNandART,
+                                    boolean useNodeLemmas) {
+        this(lemmatize, stripAdj, replaceNNandART);
+        this.useNodeLemmas = useNodeLemmas;
+    }
+
     /**
      * Normalizes the given field.
      * @param extraction the extraction to normalize
@@ -66,10 +84,15 @@ public class VerbalRelationNormalizer {
             nodes.add(extraction.getRootNode().find(extraction.getLastNodeId()));
         }
 
-        List<String> tokens = nodes.stream().map(Node::getWord).collect(Collectors.toList());
+        List<String> tokens;
+        if (lemmatize && useNodeLemmas) {
+            tokens = nodes.stream().map(VerbalRelationNormalizer::getLemma).collect(Collectors.toList());
+        } else {
+            tokens = nodes.stream().map(Node::getWord).collect(Collectors.toList());
+        }
         List<String> postags = nodes.stream().map(Node::getPos).collect(Collectors.toList());
 
-        normalizeModify(tokens, postags);
+        normalizeModify(tokens, postags, useNodeLemmas);
 
         return new TreeNormalizedField(Joiner.on(" ").join(tokens));
     }
@@ -97,7 +120,22 @@ public class VerbalRelationNormalizer {
         posTagsCopy.addAll(posTags);
         posTagsCopy.addAll(subPosTags);
 
-        normalizeModify(tokensCopy, posTagsCopy);
+        // use the lemma layer, if all lemmas are known
+        boolean lemmatized = false;
+        if (lemmatize && field.hasLemmas()
+            && (!field.hasSubRelation() || field.getSubRelation().hasLemmas())) {
+            List<String> lemmas = new ArrayList<>(tokensCopy.size());
+            lemmas.addAll(field.getLemmas());
+            if (field.hasSubRelation()) {
+                lemmas.addAll(field.getSubRelation().getLemmas());
+            }
+            if (!lemmas.contains(ChunkedSentence.UNKNOWN_LEMMA)) {
+                tokensCopy = new ArrayList<>(lemmas);
+                lemmatized = true;
+            }
+        }
+
+        normalizeModify(tokensCopy, posTagsCopy, lemmatized);
 
         try {
             return new NormalizedField(field, tokensCopy, posTagsCopy);
@@ -109,9 +147,27 @@ public class VerbalRelationNormalizer {
         }
     }
 
-    private void normalizeModify(List<String> tokens, List<String> posTags) {
-        if (lemmatize && lemmatizer == null) {
-            lemmatizer = new MateToolLemmatizer();
+    /**
+     * @param node a node of a dependency parse tree
+     * @return the lemma of the parser, the first one if the parser found multiple lemmas, or the
+     * word, if the node has no lemma
+     */
+    private static String getLemma(Node node) {
+        String lemma = node.getLemma();
+        if (lemma == null || lemma.isEmpty() || lemma.equals("_")
+            || lemma.equals(ChunkedSentence.UNKNOWN_LEMMA)) {
+            return node.getWord();
+        }
+        int bar = lemma.indexOf('|');
+        return bar > 0 ? lemma.substring(0, bar) : lemma;
+    }
+
+    /**
+     * @param lemmatized true, if the tokens are already lemmas
+     */
+    private void normalizeModify(List<String> tokens, List<String> posTags, boolean lemmatized) {
+        if (lemmatize && !lemmatized && lemmatizer == null) {
+            lemmatizer = DefaultObjects.getLemmatizer();
         }
 
         removeIgnoredPosTags(tokens, posTags);
@@ -120,7 +176,9 @@ public class VerbalRelationNormalizer {
         }
 
         if (lemmatize) {
-            tokens = lemmatizer.lemmatize(tokens);
+            if (!lemmatized) {
+                tokens = lemmatizer.lemmatize(tokens);
+            }
             removeLeadingBeHave(tokens, posTags);
         }
 
@@ -1,29 +1,113 @@
 package de.hpi.util;
 
+import de.hpi.extractor.RelationDictionary;
+import de.hpi.normalization.MateToolLemmatizer;
+import de.hpi.nlp.ThreadLocalPosTagger;
+import de.hpi.nlp.morphology.Morphology;
+import de.hpi.nlp.morphology.CompiledMorphy;
 import de.hpi.nlp.morphology.Morphy;
+import de.hpi.nlp.morphology.MorphologyLexicon;
+import de.hpi.nlp.morphology.TransducerMorphology;
 import de.hpi.nlp.morphology.ZmorgeMorphology;
+import opennlp.tools.chunker.ChunkerModel;
 import opennlp.tools.postag.POSModel;
 import opennlp.tools.postag.POSTagger;
 import opennlp.tools.postag.POSTaggerME;
 import opennlp.tools.sentdetect.SentenceDetector;
 import opennlp.tools.sentdetect.SentenceDetectorME;
 import opennlp.tools.sentdetect.SentenceModel;
+import opennlp.tools.tokenize.SimpleTokenizer;
+import opennlp.tools.tokenize.Tokenizer;
+import opennlp.tools.tokenize.TokenizerME;
+import opennlp.tools.tokenize.TokenizerModel;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
+/**
+ * Registry of the default models and resources. Each model is loaded once, when it is first
+ * requested or by {@link #preload(Model...)}, and the same instance is handed out to all
+ * extractors afterwards. The models are published safely, so that the getters can be called from
+ * several threads.
+ *
+ * Only immutable models are shared. Tools with an internal state, e.g. the OpenNLP POS tagger, are
+ * created anew by each call, but use the shared model.
+ */
 public class DefaultObjects {
 
     public static final String taggerModelFile = "de-pos-maxent.bin";
+    public static final String tokenizerModelFile = "de-token.bin";
+    public static final String chunkerModelFile = "de-chunker.bin";
     public static final String sentDetectorModelFile = "de-sent.bin";
     public static final String morphologyLexiconFile = "morphy-export-20110722.xml";
     public static final String smallMorphologyLexiconFile = "morphy-export-20110722.small.xml";
+    public static final String compiledMorphologyLexiconFile = "morphy-export-20110722.bin";
+    public static final String zmorgeTransducerFile = "zmorge-20150315-smor_newlemma.bin";
+    public static final String relationDictionaryFile = "rel_dict_de.txt.gz";
+    public static final String depRelationDictionaryFile = "dep_rel_dict_de.txt.gz";
+
+    /**
+     * The models, which can be loaded in advance by {@link #preload(Model...)}.
+     */
+    public enum Model {
+        MORPHY, ZMORGE, POS_TAGGER, TOKENIZER, CHUNKER, SENTENCE_DETECTOR, LEMMATIZER,
+        RELATION_DICTIONARY, DEP_RELATION_DICTIONARY
+    }
 
     /**
      * Default singleton objects
      */
-    private static Morphy MORPHY = null;
-    private static ZmorgeMorphology ZMORGE = null;
+    private static final Shared<MorphologyLexicon> MORPHY = new Shared<>();
+    private static final Shared<ZmorgeMorphology> ZMORGE = new Shared<>();
+    private static final Shared<Morphology> ZMORGE_MORPHOLOGY = new Shared<>();
+    private static final Shared<POSModel> POS_MODEL = new Shared<>();
+    private static final Shared<ThreadLocalPosTagger> POS_TAGGER = new Shared<>();
+    private static final Shared<TokenizerModel> TOKENIZER_MODEL = new Shared<>();
+    private static final Shared<ChunkerModel> CHUNKER_MODEL = new Shared<>();
+    private static final Shared<SentenceModel> SENTENCE_MODEL = new Shared<>();
+    private static final Shared<MateToolLemmatizer> LEMMATIZER = new Shared<>();
+    private static final Map<String, String> RESOURCE_PATHS = new ConcurrentHashMap<>();
+    private static final Map<String, Shared<RelationDictionary>> RELATION_DICTIONARIES =
+        new ConcurrentHashMap<>();
+
+    private interface Loader<T> {
+        T load() throws IOException;
+    }
+
+    /**
+     * Holds a lazily loaded model. Each model has its own lock, so that different models can be
+     * loaded in parallel, while a model is never loaded twice.
+     */
+    private static final class Shared<T> {
+        private volatile T value = null;
+
+        T get(Loader<T> loader) throws IOException {
+            T result = value;
+            if (result == null) {
+                synchronized (this) {
+                    result = value;
+                    if (result == null) {
+                        result = loader.load();
+                        value = result;
+                    }
+                }
+            }
+            return result;
+        }
+    }
 
     public static InputStream getResourceAsStream(String resource)
         throws IOException {
@@ -35,34 +119,269 @@ public class DefaultObjects {
         }
     }
 
-    public static Morphy getMorphy(boolean test) throws IOException {
-        if (MORPHY == null) {
-            String f = (test) ? smallMorphologyLexiconFile : morphologyLexiconFile;
-            InputStream in = getResourceAsStream(f);
-            if (in == null) {
-                throw new IOException("Couldn't load resource: " + f);
+    /**
+     * Returns the path of the given resource. Resources inside a jar file are copied to a
+     * temporary file first, so that tools, which can only read files, can load them. Each
+     * resource is copied only once.
+     * @param resource the name of the resource
+     * @return the path of the resource or an empty string, if the resource was not found
+     */
+    public static String getResourcePath(String resource) {
+        URL url = DefaultObjects.class.getClassLoader().getResource(resource);
+
+        if (url == null) {
+            return "";
+        }
+
+        if (url.toString().startsWith("jar:")) {
+            // copy each resource only once
+            String path = RESOURCE_PATHS.computeIfAbsent(resource, DefaultObjects::copyResource);
+            if (path != null) {
+                return path;
+            }
+        }
+        return url.getPath();
+    }
+
+    /**
+     * @return the path of the temporary file or null, if the file could not be written
+     */
+    private static String copyResource(String resource) {
+        try {
+            InputStream input = DefaultObjects.class.getClassLoader().getResourceAsStream(resource);
+            File file = File.createTempFile("tempfile", ".tmp");
+            OutputStream out = new FileOutputStream(file);
+            int read;
+            byte[] bytes = new byte[1024];
+
+            while ((read = input.read(bytes)) != -1) {
+                out.write(bytes, 0, read);
             }
-            MORPHY = new Morphy(in, test);
+            out.close();
+            file.deleteOnExit();
+
+            return file.getPath();
+        } catch (IOException ex) {
+            // Could not write tmp file
+            return null;
         }
-        return MORPHY;
     }
 
+    /**
+     * Returns the Morphy lexicon. If the compiled lexicon is available, it is memory-mapped.
+     * Otherwise, the lexicon is read from the XML file.
+     * @param test use the small lexicon for tests?
+     * @return the lexicon
+     * @throws IOException if the lexicon could not be read
+     */
+    public static MorphologyLexicon getMorphy(boolean test) throws IOException {
+        return MORPHY.get(() -> {
+            if (!test) {
+                URL url = DefaultObjects.class.getClassLoader().getResource(compiledMorphologyLexiconFile);
+                if (url != null && url.getProtocol().equals("file")) {
+                    return new CompiledMorphy(new File(url.getPath()));
+                }
+            }
+            String f = (test) ? smallMorphologyLexiconFile : morphologyLexiconFile;
+            return new Morphy(getResourceAsStream(f), test);
+        });
+    }
+
+    /**
+     * Returns the shared zmorge morphology, which keeps fst-infl2 running. fst-infl2 is run for
+     * every request instead, if stdbuf is not available.
+     * @return the morphology
+     */
     public static ZmorgeMorphology getZmorge() {
-        if (ZMORGE == null) {
-            ZMORGE = new ZmorgeMorphology();
+        try {
+            return ZMORGE.get(() -> new ZmorgeMorphology(true));
+        } catch (IOException e) {
+            // not thrown by the constructor
+            throw new IllegalStateException(e);
         }
-        return ZMORGE;
     }
 
+    /**
+     * Returns the morphology, which is used for words, that are not in the Morphy lexicon.
+     * If the compiled zmorge transducer is available, the words are analysed in the JVM.
+     * Otherwise, zmorge is run as external process.
+     * @return the morphology
+     */
+    public static Morphology getZmorgeMorphology() {
+        try {
+            return ZMORGE_MORPHOLOGY.get(() -> {
+                URL url = DefaultObjects.class.getClassLoader().getResource(zmorgeTransducerFile);
+                if (url != null && url.getProtocol().equals("file")) {
+                    try {
+                        return new TransducerMorphology(new File(url.getPath()));
+                    } catch (IOException e) {
+                        System.out.println("Could not load the zmorge transducer!");
+                    }
+                }
+                return getZmorge();
+            });
+        } catch (IOException e) {
+            // the loader falls back to zmorge
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * @return the shared OpenNLP POS tagger model
+     * @throws IOException if the model could not be read
+     */
+    public static POSModel getPosModel() throws IOException {
+        return POS_MODEL.get(() -> new POSModel(getResourceAsStream(taggerModelFile)));
+    }
+
+    /**
+     * Returns a new OpenNLP POS tagger. The tagger is not thread-safe, but the model is read
+     * only once and shared by all taggers.
+     * @return the POS tagger
+     * @throws IOException if the model could not be read
+     */
     public static POSTagger getDefaultPosTagger() throws IOException {
-        return new POSTaggerME(new POSModel(
-            getResourceAsStream(taggerModelFile)));
+        return new POSTaggerME(getPosModel());
+    }
+
+    /**
+     * Returns the shared POS tagger, which can be used by several threads. Each thread gets its
+     * own OpenNLP tagger over the shared model.
+     * @return the POS tagger
+     * @throws IOException if the model could not be read
+     */
+    public static ThreadLocalPosTagger getSharedPosTagger() throws IOException {
+        return POS_TAGGER.get(() -> new ThreadLocalPosTagger(getPosModel()));
+    }
+
+    /**
+     * Returns the OpenNLP tokenizer, if its model is on the classpath, and a simple rule-based
+     * tokenizer otherwise.
+     * @return the tokenizer
+     * @throws IOException if the tokenizer model could not be read
+     */
+    public static Tokenizer getDefaultTokenizer() throws IOException {
+        TokenizerModel model = getTokenizerModel();
+        return model == null ? SimpleTokenizer.INSTANCE : new TokenizerME(model);
+    }
+
+    /**
+     * @return the shared OpenNLP tokenizer model or null, if the model is not on the classpath
+     * @throws IOException if the model could not be read
+     */
+    public static TokenizerModel getTokenizerModel() throws IOException {
+        if (DefaultObjects.class.getClassLoader().getResource(tokenizerModelFile) == null) {
+            return null;
+        }
+        return TOKENIZER_MODEL.get(() -> {
+            try (InputStream in = getResourceAsStream(tokenizerModelFile)) {
+                return new TokenizerModel(in);
+            }
+        });
+    }
+
+    /**
+     * @return the shared OpenNLP chunker model
+     * @throws IOException if the model could not be read
+     */
+    public static ChunkerModel getChunkerModel() throws IOException {
+        return CHUNKER_MODEL.get(() -> {
+            try (InputStream in = getResourceAsStream(chunkerModelFile)) {
+                return new ChunkerModel(in);
+            }
+        });
     }
 
     public static SentenceDetector getDefaultSentenceDetector()
         throws IOException {
-        return new SentenceDetectorME(new SentenceModel(
-            getResourceAsStream(sentDetectorModelFile)));
+        return new SentenceDetectorME(SENTENCE_MODEL.get(
+            () -> new SentenceModel(getResourceAsStream(sentDetectorModelFile))));
+    }
+
+    /**
+     * @return the shared mate-tools lemmatizer
+     */
+    public static MateToolLemmatizer getLemmatizer() {
+        try {
+            return LEMMATIZER.get(MateToolLemmatizer::new);
+        } catch (IOException e) {
+            // not thrown by the constructor
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns the given relation dictionary. Each dictionary is read once and shared by all
+     * filters, which can use any minimum frequency.
+     * @param resource the gzipped relation dictionary on the classpath
+     * @return the dictionary
+     * @throws IOException if the relation dictionary could not be read
+     */
+    public static RelationDictionary getRelationDictionary(String resource) throws IOException {
+        Shared<RelationDictionary> dictionary = RELATION_DICTIONARIES.computeIfAbsent(
+            resource, key -> new Shared<>());
+        return dictionary.get(() -> {
+            try (InputStream in = new GZIPInputStream(getResourceAsStream(resource))) {
+                return RelationDictionary.read(in);
+            }
+        });
+    }
+
+    /**
+     * Loads the given models in parallel, so that the extractors, which are constructed
+     * afterwards, find them in the registry.
+     * @param models the models
+     * @throws IOException if a model could not be loaded
+     */
+    public static void preload(Model... models) throws IOException {
+        if (models.length == 0) {
+            return;
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(models.length);
+        try {
+            List<Future<Object>> futures = new ArrayList<>();
+            for (Model model : models) {
+                futures.add(executor.submit(() -> load(model)));
+            }
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading the models", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("Could not load the models", e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static Object load(Model model) throws IOException {
+        switch (model) {
+            case MORPHY:
+                return getMorphy(false);
+            case ZMORGE:
+                return getZmorgeMorphology();
+            case POS_TAGGER:
+                return getPosModel();
+            case TOKENIZER:
+                return getDefaultTokenizer();
+            case CHUNKER:
+                return getChunkerModel();
+            case SENTENCE_DETECTOR:
+                return getDefaultSentenceDetector();
+            case LEMMATIZER:
+                return getLemmatizer();
+            case RELATION_DICTIONARY:
+                return getRelationDictionary(relationDictionaryFile);
+            case DEP_RELATION_DICTIONARY:
+                return getRelationDictionary(depRelationDictionaryFile);
+            default:
+                throw new IllegalArgumentException("Unknown model: " + model);
+        }
     }
 
 }
@@ -3,21 +3,39 @@ package de.hpi.util;
 
 import com.google.common.collect.Lists;
 import de.hpi.extractor.dependency_parse_tree.DepConIEExtractor;
+import de.hpi.nlp.ClauseSplitter;
 import de.hpi.nlp.dependency_parse_tree.DependencyParseTree;
+import de.hpi.nlp.dependency_parse_tree.DependencyParser;
 import de.hpi.nlp.dependency_parse_tree.ParZuSentenceParser;
 import de.hpi.nlp.extraction.dependency_parse_tree.TreeBinaryExtraction;
 
+import java.io.Closeable;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 
 /**
  * Utility class to call Dep ConIE.
  * Dep ConIE uses dependency parse trees to extract relations from sentences.
+ *
+ * If the parser can parse multiple sentences at the same time, the sentences are parsed by a
+ * thread pool, which is started on the first call and stopped by {@link #close()}.
  */
-public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtraction> {
+public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtraction> implements Closeable {
 
     private DepConIEExtractor extractor;
+    private DependencyParser parser;
+    // splits long sentences before parsing, null if the sentences are parsed as a whole
+    private ClauseSplitter clauseSplitter = null;
+    // parses the sentences in parallel, null if it was not needed yet
+    private ExecutorService executor = null;
+    // the number of sentences or batches per parser process, which are submitted ahead of the
+    // extraction, so that the parse trees of a long list do not fill the memory
+    private static final int SUBMIT_AHEAD = 4;
 
     /**
      * Constructor of Dep ReVerb
@@ -33,6 +51,7 @@ public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtractio
     public DepConIE(boolean debug) {
         super(debug);
         this.extractor = new DepConIEExtractor();
+        this.parser = new ParZuSentenceParser();
     }
 
     /**
@@ -44,8 +63,97 @@ public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtractio
      * @param progressiveExtraction extract all extractions, which can be found (also those with many arguments)
      */
     public DepConIE(boolean debug, int minFreq, boolean childArguments, boolean pronounsAsSubject, boolean progressiveExtraction) {
+        this(debug, minFreq, childArguments, pronounsAsSubject, progressiveExtraction, new ParZuSentenceParser());
+    }
+
+    /**
+     * Constructor of Dep ReVerb with arguments
+     * @param debug             enable debug mode?
+     * @param minFreq           the minimum number of distinct arguments a relation needs to be valid
+     * @param childArguments    extract second argument also from child nodes?
+     * @param pronounsAsSubject consider pronouns as subject?
+     * @param progressiveExtraction extract all extractions, which can be found (also those with many arguments)
+     * @param parser            the parser to use, e.g. a {@link de.hpi.nlp.dependency_parse_tree.PooledParZuSentenceParser}
+     */
+    public DepConIE(boolean debug, int minFreq, boolean childArguments, boolean pronounsAsSubject, boolean progressiveExtraction,
+                    DependencyParser parser) {
         super(debug);
         this.extractor = new DepConIEExtractor(minFreq, childArguments, pronounsAsSubject, progressiveExtraction);
+        this.parser = parser;
+    }
+
+    /**
+     * Splits sentences, which are too long, into clauses before parsing. The clauses are parsed
+     * independently and the relations of all clauses are the relations of the sentence.
+     * @param clauseSplitter the splitter, or null, if the sentences should be parsed as a whole
+     */
+    public void setClauseSplitter(ClauseSplitter clauseSplitter) {
+        this.clauseSplitter = clauseSplitter;
+    }
+
+    /**
+     * Parses the given sentence. If a clause splitter is set, the clauses are parsed independently.
+     * The trees of the clauses keep the whole sentence as their sentence.
+     * @param sentence the sentence
+     * @return the dependency parse trees of the sentence or of its clauses
+     */
+    private List<DependencyParseTree> parse(String sentence) {
+        if (clauseSplitter == null) {
+            return parser.parseSentence(sentence);
+        }
+        List<String> clauses = clauseSplitter.split(sentence);
+        List<DependencyParseTree> trees = new ArrayList<>();
+        if (clauses.size() == 1) {
+            trees.addAll(parser.parseSentence(clauses.get(0)));
+        } else {
+            for (List<DependencyParseTree> clauseTrees : parser.parseSentences(clauses)) {
+                trees.addAll(clauseTrees);
+            }
+        }
+        setSentence(trees, sentence);
+        return trees;
+    }
+
+    /**
+     * Parses the given batch of sentences. If a clause splitter is set, the clauses of all
+     * sentences are parsed as one batch and the trees are merged per sentence.
+     * @param batch the sentences
+     * @return the dependency parse trees of each sentence
+     */
+    private List<List<DependencyParseTree>> parseBatch(List<String> batch) {
+        if (clauseSplitter == null) {
+            return parser.parseSentences(batch);
+        }
+        List<String> clauses = new ArrayList<>();
+        List<Integer> numberOfClauses = new ArrayList<>(batch.size());
+        for (String sentence : batch) {
+            List<String> sentenceClauses = clauseSplitter.split(sentence);
+            clauses.addAll(sentenceClauses);
+            numberOfClauses.add(sentenceClauses.size());
+        }
+
+        List<List<DependencyParseTree>> parsedClauses = parser.parseSentences(clauses);
+        List<List<DependencyParseTree>> parsedBatch = new ArrayList<>(batch.size());
+        int clause = 0;
+        for (int n : numberOfClauses) {
+            List<DependencyParseTree> trees = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                trees.addAll(parsedClauses.get(clause++));
+            }
+            setSentence(trees, batch.get(parsedBatch.size()));
+            parsedBatch.add(trees);
+        }
+        return parsedBatch;
+    }
+
+    /**
+     * The parser sets the clause as the sentence of a tree, but the extractions should refer to
+     * the original sentence.
+     */
+    private static void setSentence(List<DependencyParseTree> trees, String sentence) {
+        for (DependencyParseTree tree : trees) {
+            tree.setSentence(sentence);
+        }
     }
 
     protected Iterable<TreeBinaryExtraction> extract(DependencyParseTree tree) {
@@ -58,9 +166,11 @@ public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtractio
      * @return the extracted relations
      */
     public Iterable<TreeBinaryExtraction> extractRelationsFromString(String sentStr) {
+        if (!isAdmitted(sentStr)) {
+            return new ArrayList<>();
+        }
         // Convert sentence into a dependency parse tree
-        ParZuSentenceParser parser = new ParZuSentenceParser();
-        List<DependencyParseTree> trees = parser.parseSentence(sentStr);
+        List<DependencyParseTree> trees = parse(sentStr);
 
         // Extract relations
         List<TreeBinaryExtraction> extractions = new ArrayList<>();
@@ -77,29 +187,195 @@ public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtractio
      */
     public Map<String, Iterable<TreeBinaryExtraction>> extractRelationsFromStrings(List<String> sentences) {
         Map<String, Iterable<TreeBinaryExtraction>> sent2relations = new HashMap<>();
-        ParZuSentenceParser parser = new ParZuSentenceParser();
+        sentences = admit(sentences, sent2relations);
 
-        if (this.debug) System.out.println("Process sentences ...");
-        int n = 0;
-        for (String sentence : sentences) {
-            // Output progress
-            if (this.debug && n % 50 == 0) {
-                System.out.print(n + " .. ");
+        // parse the sentences in parallel, if the parser supports it; only a window of
+        // sentences is submitted ahead of the extraction
+        Deque<Future<List<DependencyParseTree>>> parsedSentences = null;
+        int window = parser.getConcurrency() * SUBMIT_AHEAD;
+        if (parser.getConcurrency() > 1) {
+            parsedSentences = new ArrayDeque<>(window);
+        }
+
+        try {
+            if (this.debug) System.out.println("Process sentences ...");
+            int n = 0;
+            int submitted = 0;
+            Iterator<String> toSubmit = sentences.iterator();
+            for (String sentence : sentences) {
+                // Output progress
+                if (this.debug && n % 50 == 0) {
+                    System.out.print(n + " .. ");
+                }
+                // parse sentence and extract relations
+                List<DependencyParseTree> trees;
+                if (parsedSentences != null) {
+                    for (; submitted < n + window && toSubmit.hasNext(); submitted++) {
+                        String next = toSubmit.next();
+                        parsedSentences.add(getExecutor().submit(() -> parse(next)));
+                    }
+                    trees = getParsedSentence(parsedSentences.poll(), sentence);
+                } else {
+                    trees = parse(sentence);
+                }
+                n++;
+                List<TreeBinaryExtraction> extractions = new ArrayList<>();
+                for (DependencyParseTree tree : trees) {
+                    extractions.addAll(Lists.newArrayList(extract(tree)));
+                }
+                sent2relations.put(sentence, extractions);
             }
-            n++;
-            // parse sentence and extract relations
-            List<DependencyParseTree> trees = parser.parseSentence(sentence);
-            List<TreeBinaryExtraction> extractions = new ArrayList<>();
-            for (DependencyParseTree tree : trees) {
-                extractions.addAll(Lists.newArrayList(extract(tree)));
+            if (this.debug) System.out.println("Done.");
+        } finally {
+            cancel(parsedSentences);
+        }
+
+        return sent2relations;
+    }
+
+    /**
+     * Extract relations from the given list of sentences.
+     * The sentences are parsed in batches. Each batch is processed by a single run of ParZu.
+     * Sentences, which could not be parsed, have no relations.
+     * @param sentences a list of sentences
+     * @param batchSize the number of sentences to parse at once
+     * @return the extracted relations
+     * @throws IllegalArgumentException if the batch size is less than 1
+     */
+    public Map<String, Iterable<TreeBinaryExtraction>> extractRelationsFromStrings(List<String> sentences, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize < 1: " + batchSize);
+        }
+        Map<String, Iterable<TreeBinaryExtraction>> sent2relations = new HashMap<>();
+        sentences = admit(sentences, sent2relations);
+
+        // parse the batches in parallel, if the parser supports it; only a window of batches is
+        // submitted ahead of the extraction
+        Deque<Future<List<List<DependencyParseTree>>>> parsedBatches = null;
+        int window = parser.getConcurrency() * SUBMIT_AHEAD;
+        if (parser.getConcurrency() > 1) {
+            parsedBatches = new ArrayDeque<>(window);
+        }
+
+        try {
+            if (this.debug) System.out.println("Process sentences ...");
+            int submitted = 0;
+            for (int start = 0; start < sentences.size(); start += batchSize) {
+                // Output progress
+                if (this.debug) {
+                    System.out.print(start + " .. ");
+                }
+                List<String> batch = sentences.subList(start, Math.min(start + batchSize, sentences.size()));
+
+                // parse sentences and extract relations
+                List<List<DependencyParseTree>> parsedBatch;
+                if (parsedBatches != null) {
+                    for (; submitted < sentences.size() && submitted < start + window * batchSize;
+                         submitted += batchSize) {
+                        List<String> next = sentences.subList(submitted, Math.min(submitted + batchSize, sentences.size()));
+                        parsedBatches.add(getExecutor().submit(() -> parseBatch(next)));
+                    }
+                    parsedBatch = getParsedBatch(parsedBatches.poll(), batch.size());
+                } else {
+                    parsedBatch = parseBatch(batch);
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    List<TreeBinaryExtraction> extractions = new ArrayList<>();
+                    for (DependencyParseTree tree : parsedBatch.get(i)) {
+                        extractions.addAll(Lists.newArrayList(extract(tree)));
+                    }
+                    sent2relations.put(batch.get(i), extractions);
+                }
             }
-            sent2relations.put(sentence, extractions);
+            if (this.debug) System.out.println("Done.");
+        } finally {
+            cancel(parsedBatches);
         }
-        if (this.debug) System.out.println("Done.");
 
         return sent2relations;
     }
 
+    /**
+     * Waits for a batch of sentences, which is parsed in the background.
+     * @param parsedBatch the future result of the parser
+     * @param size the number of sentences in the batch
+     * @return a list of dependency parse trees for each sentence, which is empty if the sentence
+     * could not be parsed
+     */
+    private List<List<DependencyParseTree>> getParsedBatch(Future<List<List<DependencyParseTree>>> parsedBatch, int size) {
+        try {
+            return parsedBatch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            System.out.println("Dep ConIE: Could not parse " + size + " sentences: " + e.getCause());
+        }
+        List<List<DependencyParseTree>> empty = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            empty.add(new ArrayList<>());
+        }
+        return empty;
+    }
+
+    /**
+     * Waits for a sentence, which is parsed in the background.
+     * @param parsedSentence the future result of the parser
+     * @param sentence the sentence
+     * @return a list of dependency parse trees, which is empty if the sentence could not be parsed
+     */
+    private List<DependencyParseTree> getParsedSentence(Future<List<DependencyParseTree>> parsedSentence,
+                                                        String sentence) {
+        try {
+            return parsedSentence.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new ArrayList<>();
+        } catch (ExecutionException e) {
+            System.out.println("Dep ConIE: Could not parse sentence '" + sentence + "': " + e.getCause());
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Cancels the parsing of the sentences, which are not needed anymore, e.g. because the
+     * extraction failed.
+     * @param parsed the future results of the parser, may be null
+     */
+    private static void cancel(Collection<? extends Future<?>> parsed) {
+        if (parsed == null) {
+            return;
+        }
+        for (Future<?> future : parsed) {
+            future.cancel(true);
+        }
+    }
+
+    /**
+     * @return the thread pool, which parses the sentences in parallel
+     */
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            // daemon threads, so that a missing call of close does not keep the JVM running
+            executor = Executors.newFixedThreadPool(parser.getConcurrency(), runnable -> {
+                Thread thread = new Thread(runnable, "DepConIE parser");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the thread pool, which parses the sentences in parallel. The parser is not closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
     /**
      * Extract relations from the given sentence.
      * @param sentStr the sentence as string
@@ -107,8 +383,7 @@ public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtractio
      */
     public Iterable<TreeBinaryExtraction> extractRelationsFromParsedString(String sentStr) {
         // Convert sentence into a dependency parse tree
-        ParZuSentenceParser parser = new ParZuSentenceParser();
-        List<DependencyParseTree> trees = parser.convert(Arrays.asList(sentStr.split("\n")));
+        List<DependencyParseTree> trees = DependencyParseTree.fromConll(Arrays.asList(sentStr.split("\n")));
 
         // Extract relations
         List<TreeBinaryExtraction> extractions = new ArrayList<>();
@@ -125,7 +400,6 @@ public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtractio
      */
     public Map<String, Iterable<TreeBinaryExtraction>> extractRelationsFromParsedStrings(List<String> sentences) {
         Map<String, Iterable<TreeBinaryExtraction>> sent2relations = new HashMap<>();
-        ParZuSentenceParser parser = new ParZuSentenceParser();
 
         if (this.debug) System.out.println("Process sentences ...");
         int n = 0;
@@ -136,7 +410,7 @@ public class DepConIE extends Extractor<DependencyParseTree, TreeBinaryExtractio
             }
             n++;
             // parse sentence and extract relations
-            List<DependencyParseTree> trees = parser.convert(Arrays.asList(sentence.split("\n")));
+            List<DependencyParseTree> trees = DependencyParseTree.fromConll(Arrays.asList(sentence.split("\n")));
             List<TreeBinaryExtraction> extractions = new ArrayList<>();
             for (DependencyParseTree tree : trees) {
                 extractions.addAll(Lists.newArrayList(extract(tree)));
@@ -1,12 +1,17 @@
 package de.hpi.util;
 
+import de.hpi.extractor.FilterMapper;
+
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
 public abstract class Extractor<R, T> {
 
     protected boolean debug;
+    // drops sentences before they are chunked or parsed, null if all sentences are processed
+    private FilterMapper<String> admissionFilter = null;
 
     /**
      * Constructor of Extractor
@@ -23,6 +28,49 @@ public abstract class Extractor<R, T> {
         this.debug = debug;
     }
 
+    /**
+     * Sets a filter, which is applied to the sentences before any external tool runs. Sentences,
+     * which are not admitted, have no relations.
+     * @param admissionFilter the filter, e.g. a {@link de.hpi.extractor.SentenceAdmissionFilter},
+     *                        or null, if all sentences should be processed
+     */
+    public void setAdmissionFilter(FilterMapper<String> admissionFilter) {
+        this.admissionFilter = admissionFilter;
+    }
+
+    /**
+     * @param sentence the sentence
+     * @return true, if the sentence should be processed, false otherwise
+     */
+    protected boolean isAdmitted(String sentence) {
+        return admissionFilter == null || admissionFilter.doFilter(sentence);
+    }
+
+    /**
+     * Applies the admission filter to the given sentences.
+     * @param sentences the sentences
+     * @param sent2relations the result, which gets an empty list of relations for each sentence,
+     *                       which is not admitted
+     * @return the admitted sentences
+     */
+    protected List<String> admit(List<String> sentences, Map<String, Iterable<T>> sent2relations) {
+        if (admissionFilter == null) {
+            return sentences;
+        }
+        List<String> admitted = new ArrayList<>(sentences.size());
+        for (String sentence : sentences) {
+            if (admissionFilter.doFilter(sentence)) {
+                admitted.add(sentence);
+            } else {
+                sent2relations.put(sentence, new ArrayList<>());
+            }
+        }
+        if (this.debug) {
+            System.out.println((sentences.size() - admitted.size()) + " sentences not admitted");
+        }
+        return admitted;
+    }
+
     public abstract Iterable<T> extractRelationsFromString(String sentStr) throws IOException;
     public abstract Map<String, Iterable<T>> extractRelationsFromStrings(List<String> sentences)
         throws IOException;
@@ -3,6 +3,7 @@ package de.hpi.util;
 
 import com.google.common.collect.Lists;
 import de.hpi.nlp.chunking.ChunkedSentence;
+import de.hpi.nlp.chunking.SentenceChunker;
 import de.hpi.nlp.chunking.TreeTaggerSentenceChunker;
 import de.hpi.nlp.extraction.chunking.ChunkedBinaryExtraction;
 
@@ -18,7 +19,9 @@ import java.util.Map;
  */
 abstract class ExtractorChunks extends Extractor<ChunkedSentence, ChunkedBinaryExtraction> {
 
-    TreeTaggerSentenceChunker taggerSentenceChunker;
+    SentenceChunker taggerSentenceChunker;
+    // converts the output of TreeTagger, if the sentences are chunked by another chunker
+    private TreeTaggerSentenceChunker treeTaggerConverter;
 
     public ExtractorChunks() throws IOException {
         this.taggerSentenceChunker = new TreeTaggerSentenceChunker();
@@ -30,8 +33,26 @@ abstract class ExtractorChunks extends Extractor<ChunkedSentence, ChunkedBinaryE
      * @throws IOException if the treetagger resource could not be read
      */
     public ExtractorChunks(boolean debug) throws IOException {
+        this(debug, new TreeTaggerSentenceChunker());
+    }
+
+    /**
+     * Constructor of ExtractorChunks
+     * @param debug  enable debug mode?
+     * @param sentenceChunker the chunker, which converts the sentences into chunked sentences
+     */
+    public ExtractorChunks(boolean debug, SentenceChunker sentenceChunker) {
         super(debug);
-        this.taggerSentenceChunker = new TreeTaggerSentenceChunker();
+        this.taggerSentenceChunker = sentenceChunker;
+    }
+
+    /**
+     * Prepares the extraction of relations from a batch of sentences, e.g. by looking up
+     * resources for all sentences at once. Does nothing by default.
+     * @param sentences the chunked sentences, <code>null</code> for each sentence, which could not
+     *                  be chunked
+     */
+    protected void prepare(List<ChunkedSentence> sentences) {
     }
 
     /**
@@ -41,6 +62,9 @@ abstract class ExtractorChunks extends Extractor<ChunkedSentence, ChunkedBinaryE
      * @throws IOException if the tree-tagger model could not be loaded
      */
     public Iterable<ChunkedBinaryExtraction> extractRelationsFromString(String sentStr) throws IOException {
+        if (!isAdmitted(sentStr)) {
+            return new ArrayList<>();
+        }
         ChunkedSentence sent = taggerSentenceChunker.chunkSentence(sentStr);
         return extract(sent);
     }
@@ -53,6 +77,7 @@ abstract class ExtractorChunks extends Extractor<ChunkedSentence, ChunkedBinaryE
      */
     public Map<String, Iterable<ChunkedBinaryExtraction>> extractRelationsFromStrings(List<String> sentences) throws IOException {
         Map<String, Iterable<ChunkedBinaryExtraction>> sent2relations = new HashMap<>();
+        sentences = admit(sentences, sent2relations);
 
         if (this.debug) System.out.println("Process sentences ...");
         int n = 0;
@@ -71,6 +96,61 @@ abstract class ExtractorChunks extends Extractor<ChunkedSentence, ChunkedBinaryE
         return sent2relations;
     }
 
+    /**
+     * Extract relations from the given list of sentences.
+     * The sentences are chunked in batches. Each batch is processed by a single run of TreeTagger.
+     * Sentences, which could not be chunked, have no relations.
+     * @param sentences a list of sentences
+     * @param batchSize the number of sentences to chunk at once
+     * @return the extracted relations
+     * @throws IllegalArgumentException if the batch size is less than 1
+     */
+    public Map<String, Iterable<ChunkedBinaryExtraction>> extractRelationsFromStrings(List<String> sentences, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize < 1: " + batchSize);
+        }
+        Map<String, Iterable<ChunkedBinaryExtraction>> sent2relations = new HashMap<>();
+        sentences = admit(sentences, sent2relations);
+
+        if (this.debug) System.out.println("Process sentences ...");
+        for (int start = 0; start < sentences.size(); start += batchSize) {
+            // Output progress
+            if (this.debug) {
+                System.out.print(start + " .. ");
+            }
+            List<String> batch = sentences.subList(start, Math.min(start + batchSize, sentences.size()));
+
+            // Convert sentences and extract relations
+            List<ChunkedSentence> sents = taggerSentenceChunker.chunkSentences(batch);
+            prepare(sents);
+            for (int i = 0; i < batch.size(); i++) {
+                ChunkedSentence sent = sents.get(i);
+                if (sent == null) {
+                    sent2relations.put(batch.get(i), new ArrayList<>());
+                } else {
+                    sent2relations.put(batch.get(i), extract(sent));
+                }
+            }
+        }
+        if (this.debug) System.out.println("Done.");
+
+        return sent2relations;
+    }
+
+    /**
+     * @return the chunker, which converts the output of TreeTagger into chunked sentences
+     * @throws IOException if the tree-tagger model could not be loaded
+     */
+    private TreeTaggerSentenceChunker getTreeTaggerConverter() throws IOException {
+        if (taggerSentenceChunker instanceof TreeTaggerSentenceChunker) {
+            return (TreeTaggerSentenceChunker) taggerSentenceChunker;
+        }
+        if (treeTaggerConverter == null) {
+            treeTaggerConverter = new TreeTaggerSentenceChunker();
+        }
+        return treeTaggerConverter;
+    }
+
     /**
      * Extract relations from the given sentence.
      * @param sentStr the sentence as string
@@ -78,7 +158,7 @@ abstract class ExtractorChunks extends Extractor<ChunkedSentence, ChunkedBinaryE
      * @throws IOException if the tree-tagger model could not be loaded
      */
     public Iterable<ChunkedBinaryExtraction> extractRelationsFromParsedString(String sentStr) throws IOException {
-        ChunkedSentence sent = taggerSentenceChunker.convert(sentStr);
+        ChunkedSentence sent = getTreeTaggerConverter().convert(sentStr);
         return extract(sent);
     }
 
@@ -100,7 +180,7 @@ abstract class ExtractorChunks extends Extractor<ChunkedSentence, ChunkedBinaryE
             }
             n++;
             // Convert sentence and extract relations
-            ChunkedSentence sent = taggerSentenceChunker.convert(sentence);
+            ChunkedSentence sent = getTreeTaggerConverter().convert(sentence);
             sent2relations.put(sentence, extract(sent));
         }
         if (this.debug) System.out.println("Done.");
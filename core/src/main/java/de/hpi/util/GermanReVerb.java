@@ -3,9 +3,15 @@ package de.hpi.util;
 
 import de.hpi.extractor.chunking.GermanReVerbExtractor;
 import de.hpi.nlp.chunking.ChunkedSentence;
+import de.hpi.nlp.chunking.SentenceChunker;
 import de.hpi.nlp.extraction.chunking.ChunkedBinaryExtraction;
+import de.hpi.nlp.morphology.MorphologyLexicon;
+import de.hpi.nlp.morphology.ZmorgeMorphology;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 
 /**
@@ -15,6 +21,7 @@ import java.io.IOException;
 public class GermanReVerb extends ExtractorChunks {
 
     private GermanReVerbExtractor extractor;
+    private boolean useMorphologyLexicon = true;
 
     /**
      * Constructor of German ReVerb
@@ -49,6 +56,61 @@ public class GermanReVerb extends ExtractorChunks {
                         boolean combineVerbs, boolean reflexiveVerbs, boolean useMorphologyLexicon, boolean extractSubsentences) throws IOException {
         super(debug);
         this.extractor = new GermanReVerbExtractor(minFreq, useLexSynConstraints, combineVerbs, reflexiveVerbs, useMorphologyLexicon, extractSubsentences);
+        this.useMorphologyLexicon = useMorphologyLexicon;
+    }
+
+    /**
+     * Constructor of German ReVerb
+     * @param debug enable debug mode?
+     * @param minFreq the minimum distinct arguments to be observed in a large collection for the relation to be deemed valid.
+     * @param useLexSynConstraints use syntactic and lexical constraints that are part of German Reverb?
+     * @param combineVerbs combine separated verbs?
+     * @param reflexiveVerbs add the reflexive pronoun always to the relation phrase?
+     * @param useMorphologyLexicon use a morphology lexicon?
+     * @param extractSubsentences divide the sentence into subsentence before extracting relations?
+     * @param sentenceChunker the chunker, which converts the sentences into chunked sentences
+     */
+    public GermanReVerb(boolean debug, int minFreq, boolean useLexSynConstraints,
+                        boolean combineVerbs, boolean reflexiveVerbs, boolean useMorphologyLexicon, boolean extractSubsentences,
+                        SentenceChunker sentenceChunker) {
+        super(debug, sentenceChunker);
+        this.extractor = new GermanReVerbExtractor(minFreq, useLexSynConstraints, combineVerbs, reflexiveVerbs, useMorphologyLexicon, extractSubsentences);
+        this.useMorphologyLexicon = useMorphologyLexicon;
+    }
+
+    /**
+     * Analyses all distinct nouns of the batch, which are not in the Morphy lexicon, with a single
+     * run of zmorge, so that the case of the first argument can be determined without further
+     * zmorge runs.
+     * @param sentences the chunked sentences, <code>null</code> for each sentence, which could not
+     *                  be chunked
+     */
+    @Override
+    protected void prepare(List<ChunkedSentence> sentences) {
+        // the precomputation is only needed, if zmorge is run as external process
+        if (!useMorphologyLexicon || !(DefaultObjects.getZmorgeMorphology() instanceof ZmorgeMorphology)) return;
+
+        MorphologyLexicon morphy;
+        try {
+            morphy = DefaultObjects.getMorphy(false);
+        } catch (IOException e) {
+            // the morphology lexicon is not used
+            return;
+        }
+
+        Set<String> unknownNouns = new HashSet<>();
+        for (ChunkedSentence sentence : sentences) {
+            if (sentence == null) continue;
+            for (int i = 0; i < sentence.getLength(); i++) {
+                String posTag = sentence.getPosTag(i);
+                if ((posTag.equals("NN") || posTag.equals("NE")) && !morphy.contains(sentence.getToken(i))) {
+                    unknownNouns.add(sentence.getToken(i));
+                }
+            }
+        }
+        if (!unknownNouns.isEmpty()) {
+            ((ZmorgeMorphology) DefaultObjects.getZmorgeMorphology()).precompute(unknownNouns);
+        }
     }
 
     @Override
@@ -3,6 +3,7 @@ package de.hpi.util;
 
 import de.hpi.extractor.chunking.ReVerbExtractor;
 import de.hpi.nlp.chunking.ChunkedSentence;
+import de.hpi.nlp.chunking.SentenceChunker;
 import de.hpi.nlp.extraction.chunking.ChunkedBinaryExtraction;
 
 import java.io.IOException;
@@ -38,6 +39,18 @@ public class ReVerb extends ExtractorChunks {
         this.extractor = new ReVerbExtractor(minFreq, useLexSynConstraints);
     }
 
+    /**
+     * Constructor of ReVerb
+     * @param debug  enable debug mode?
+     * @param minFreq the minimum distinct arguments to be observed in a large collection for the relation to be deemed valid.
+     * @param useLexSynConstraints use syntactic and lexical constraints that are part of ReVerb?
+     * @param sentenceChunker the chunker, which converts the sentences into chunked sentences
+     */
+    public ReVerb(boolean debug, int minFreq, boolean useLexSynConstraints, SentenceChunker sentenceChunker) {
+        super(debug, sentenceChunker);
+        this.extractor = new ReVerbExtractor(minFreq, useLexSynConstraints);
+    }
+
     @Override
     protected Iterable<ChunkedBinaryExtraction> extract(ChunkedSentence sentence) {
         return this.extractor.extract(sentence);
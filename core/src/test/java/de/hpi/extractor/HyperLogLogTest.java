@@ -0,0 +1,50 @@
+package de.hpi.extractor;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class HyperLogLogTest {
+
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    private static long hash(String value) {
+        return HASH.hashString(value, Charsets.UTF_8).asLong();
+    }
+
+    @Test
+    public void testExactCount() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100; i++) {
+            sketch.offer(hash("Argument " + (i % 50)));
+        }
+        assertTrue(sketch.isExact());
+        assertEquals(50, sketch.cardinality());
+    }
+
+    @Test
+    public void testEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 100000; i++) {
+            sketch.offer(hash("Argument " + (i % 20000)));
+        }
+        assertFalse(sketch.isExact());
+        // the standard error is about 3.3% with 1024 registers
+        assertEquals(20000, sketch.cardinality(), 20000 * 0.1);
+    }
+
+    @Test
+    public void testSmallEstimate() {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = 0; i < 300; i++) {
+            sketch.offer(hash("Argument " + i));
+        }
+        assertFalse(sketch.isExact());
+        assertEquals(300, sketch.cardinality(), 300 * 0.1);
+    }
+}
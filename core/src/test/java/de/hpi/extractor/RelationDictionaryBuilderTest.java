@@ -0,0 +1,48 @@
+package de.hpi.extractor;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RelationDictionaryBuilderTest {
+
+    @Test
+    public void testWrite() throws Exception {
+        RelationDictionaryBuilder builder = new RelationDictionaryBuilder();
+        builder.add("liegen in", "Berlin");
+        builder.add("liegen in", "berlin ");
+        builder.add("liegen in", "Potsdam");
+        builder.add("gehören zu", "der  Familie");
+        builder.add("", "nichts");
+        for (int i = 0; i < 30; i++) {
+            builder.add("sein", "Argument " + i);
+        }
+
+        assertEquals(3, builder.size());
+        assertEquals(2, builder.getFrequency("liegen in"));
+        assertEquals(0, builder.getFrequency("liegen an"));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        builder.write(out);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+            new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())), StandardCharsets.UTF_8));
+        assertEquals("30\tsein", reader.readLine());
+        assertEquals("2\tliegen in", reader.readLine());
+        assertEquals("1\tgehören zu", reader.readLine());
+
+        RelationDictionary dictionary = RelationDictionary.read(
+            new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())));
+        assertEquals(30, dictionary.getFrequency("sein"));
+        assertTrue(dictionary.contains("liegen in", 2));
+        assertEquals(dictionary.size(), builder.build().size());
+    }
+}
@@ -0,0 +1,54 @@
+package de.hpi.extractor;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class RelationDictionaryTest {
+
+    private static RelationDictionary read(String dict) throws Exception {
+        return RelationDictionary.read(new ByteArrayInputStream(dict.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testRead() throws Exception {
+        RelationDictionary dictionary = read(
+            "25\tsein Teil von\n3\tliegen an\nkaputt\n20\tgehören zu\n7\tliegen an\n");
+
+        assertEquals(3, dictionary.size());
+        assertEquals(25, dictionary.getFrequency("sein Teil von"));
+        assertEquals(20, dictionary.getFrequency("gehören zu"));
+        assertEquals(7, dictionary.getFrequency("liegen an"));
+        assertEquals(0, dictionary.getFrequency("liegen in"));
+
+        assertTrue(dictionary.contains("gehören zu", 20));
+        assertFalse(dictionary.contains("gehören zu", 21));
+        assertFalse(dictionary.contains("liegen in", 0));
+    }
+
+    @Test
+    public void testGetRelations() throws Exception {
+        RelationDictionary dictionary = read(
+            "25\tsein Teil von\n3\tliegen an\n20\tgehören zu\n40\täußern sich zu\n");
+
+        Set<String> relations = dictionary.getRelations(20);
+        assertEquals(3, relations.size());
+        assertTrue(relations.contains("gehören zu"));
+        assertTrue(relations.contains("äußern sich zu"));
+        assertFalse(relations.contains("liegen an"));
+        // sorted by the UTF-8 bytes
+        assertEquals(Arrays.asList("gehören zu", "sein Teil von", "äußern sich zu"),
+                     new ArrayList<>(relations));
+
+        assertEquals(4, dictionary.getRelations(1).size());
+        assertTrue(dictionary.getRelations(100).isEmpty());
+    }
+}
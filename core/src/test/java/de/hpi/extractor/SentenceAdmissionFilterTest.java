@@ -0,0 +1,24 @@
+package de.hpi.extractor;
+
+import opennlp.tools.tokenize.SimpleTokenizer;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SentenceAdmissionFilterTest {
+
+    @Test
+    public void testWordRatio() {
+        SentenceAdmissionFilter filter = new SentenceAdmissionFilter(SimpleTokenizer.INSTANCE, null, 0.5);
+
+        assertTrue(filter.doFilter("Die Commerzbank ist eine Geschäftsbank."));
+        assertFalse(filter.doFilter("| 12.03.2015 | 14:00 | € 9,99 |"));
+        assertFalse(filter.doFilter(""));
+
+        assertEquals(0.75, SentenceAdmissionFilter.getWordRatio(new String[]{"Das", "ist", "gut", "."}), 0.001);
+        assertEquals(1.0, SentenceAdmissionFilter.getWordRatio(new String[]{"E-Mail"}), 0.001);
+    }
+
+}
@@ -8,17 +8,21 @@ import de.hpi.nlp.chunking.ChunkedSentence;
 import de.hpi.nlp.extraction.chunking.ChunkedArgumentExtraction;
 import de.hpi.nlp.extraction.chunking.ChunkedRelationExtraction;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 
 public class ClosestNominativeArgumentMapperTest {
 
+    ChunkedSentence sentence;
     ChunkedArgumentExtraction extraction1;
     ChunkedArgumentExtraction extraction2;
 
     @Before
     public void setUp() throws Exception {
-        ChunkedSentence sentence = new ChunkedSentence(
+        sentence = new ChunkedSentence(
             new String[]{"Die", "Schale", "des", "Apfels", "ist", "gesund", "."},
             new String[]{"ART", "NN", "ART", "NN", "VAFIN", "ADJD", "$."},
             new String[]{"B-NP", "I-NP", "B-NP", "I-NP", "B-VP", "B-NP", "O"}
@@ -35,4 +39,22 @@ public class ClosestNominativeArgumentMapperTest {
         assertTrue(mapper.doValueMap(extraction1) > mapper.doValueMap(extraction2));
     }
 
+    @Test
+    public void testNominativeLayer() throws Exception {
+        ClosestNominativeArgumentMapper mapper = new ClosestNominativeArgumentMapper(true);
+        assertNull(sentence.getNominatives());
+
+        mapper.doValueMap(extraction1);
+        boolean[] nominatives = sentence.getNominatives();
+        assertTrue(nominatives[0]);
+        assertTrue(nominatives[1]);
+        assertFalse(nominatives[3]);
+        assertTrue(nominatives[4]);
+
+        // the layer is computed only once per sentence
+        mapper.doValueMap(extraction2);
+        assertSame(nominatives, sentence.getNominatives());
+        assertSame(nominatives, mapper.getNominatives(sentence));
+    }
+
 }
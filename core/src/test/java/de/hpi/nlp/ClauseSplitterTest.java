@@ -0,0 +1,104 @@
+package de.hpi.nlp;
+
+import opennlp.tools.postag.POSTagger;
+import opennlp.tools.tokenize.SimpleTokenizer;
+import opennlp.tools.util.Sequence;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class ClauseSplitterTest {
+
+    @Test
+    public void testSplit() {
+        ClauseSplitter splitter = new ClauseSplitter(SimpleTokenizer.INSTANCE, null, 5);
+
+        assertEquals(Arrays.asList("Das ist kurz."), splitter.split("Das ist kurz."));
+        assertEquals(Arrays.asList("Die Bank hat Standorte in Berlin", "Sie ist um 14:00 geöffnet."),
+                     splitter.split("Die Bank hat Standorte in Berlin; Sie ist um 14:00 geöffnet."));
+        assertEquals(Arrays.asList("Die Bank hat Standorte in Berlin", "Hamburg und München."),
+                     splitter.split("Die Bank hat Standorte in Berlin: Hamburg und München."));
+    }
+
+    @Test
+    public void testSplitAtConjunction() {
+        ClauseSplitter splitter = new ClauseSplitter(SimpleTokenizer.INSTANCE, new LexiconTagger(), 5);
+
+        assertEquals(Arrays.asList("Er blieb zu Hause", "er war krank."),
+                     splitter.split("Er blieb zu Hause, denn er war krank."));
+        assertEquals(Arrays.asList("Er blieb zu Hause", "er war krank."),
+                     splitter.split("Er blieb zu Hause und er war krank."));
+        // 'doch' is an adverb here
+        assertEquals(Arrays.asList("Das ist doch klar, er blieb zu Hause."),
+                     splitter.split("Das ist doch klar, er blieb zu Hause."));
+        // coordinated nouns
+        assertEquals(Arrays.asList("Er blieb zu Hause und Garten."),
+                     splitter.split("Er blieb zu Hause und Garten."));
+    }
+
+    /**
+     * Tags the tokens of the test sentences by a lexicon.
+     */
+    private static class LexiconTagger implements POSTagger {
+
+        private final Map<String, String> lexicon = new HashMap<>();
+
+        LexiconTagger() {
+            String[][] entries = {
+                {"Er", "PPER"}, {"er", "PPER"}, {"Das", "PDS"}, {"blieb", "VVFIN"},
+                {"war", "VAFIN"}, {"ist", "VAFIN"}, {"zu", "APPR"}, {"Hause", "NN"},
+                {"Garten", "NN"}, {"krank", "ADJD"}, {"klar", "ADJD"}, {"doch", "ADV"},
+                {"denn", "KON"}, {"und", "KON"}, {",", "$,"}, {".", "$."}};
+            for (String[] entry : entries) {
+                lexicon.put(entry[0], entry[1]);
+            }
+        }
+
+        @Override
+        public String[] tag(String[] sentence) {
+            String[] tags = new String[sentence.length];
+            for (int i = 0; i < sentence.length; i++) {
+                tags[i] = lexicon.get(sentence[i]);
+            }
+            return tags;
+        }
+
+        @Override
+        @Deprecated
+        public List<String> tag(List<String> sentence) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String[] tag(String[] sentence, Object[] additionalContext) {
+            return tag(sentence);
+        }
+
+        @Override
+        @Deprecated
+        public String tag(String sentence) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        @Deprecated
+        public Sequence[] topKSequences(List<String> sentence) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Sequence[] topKSequences(String[] sentence) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Sequence[] topKSequences(String[] sentence, Object[] additionalContext) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
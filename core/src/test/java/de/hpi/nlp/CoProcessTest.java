@@ -0,0 +1,76 @@
+package de.hpi.nlp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class CoProcessTest {
+
+    @Test
+    public void testCall() throws Exception {
+        CoProcess cat = new CoProcess(new String[]{"cat"}, "<end/>");
+
+        assertEquals(Arrays.asList("Das ist ein Satz ."), cat.call("Das ist ein Satz ."));
+        assertTrue(cat.isAlive());
+        assertEquals(Arrays.asList("Zwei", "Zeilen"), cat.call(Arrays.asList("Zwei", "Zeilen")));
+
+        cat.close();
+        assertFalse(cat.isAlive());
+    }
+
+    @Test
+    public void testCallWithPadding() throws Exception {
+        CoProcess cat = new CoProcess(new String[]{"cat"}, "<end/>", "<flush/>", 10000);
+
+        for (int i = 0; i < 3; i++) {
+            List<String> output = cat.call("Satz " + i);
+            assertEquals(Arrays.asList("Satz " + i), output);
+        }
+
+        cat.close();
+    }
+
+    @Test
+    public void testCallWithOutputDelimiter() throws Exception {
+        CoProcess sed = new CoProcess(new String[]{"sed", "-u", "s/^/> /"},
+                                      "<end/>", "> <end/>", null, 0);
+
+        assertEquals(Arrays.asList("> a", "> b"), sed.call(Arrays.asList("a", "b")));
+        assertEquals(Arrays.asList("> c"), sed.call("c"));
+
+        sed.close();
+    }
+
+    @Test
+    public void testRestart() throws Exception {
+        CoProcess cat = new CoProcess(new String[]{"cat"}, "<end/>");
+
+        assertEquals(Arrays.asList("a"), cat.call("a"));
+        cat.close();
+        assertEquals(Arrays.asList("b"), cat.call("b"));
+
+        cat.close();
+    }
+
+    @Test
+    public void testCallWithTimeout() throws Exception {
+        // sleep never answers, the process is killed and restarted for the next call
+        CoProcess sleep = new CoProcess(new String[]{"sleep", "10"}, "<end/>");
+
+        try {
+            sleep.call("a", 200);
+            fail("timeout expected");
+        } catch (ProcessTimeoutException e) {
+            assertFalse(sleep.isAlive());
+        }
+
+        sleep.close();
+    }
+
+}
@@ -0,0 +1,80 @@
+package de.hpi.nlp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ExternalProcessTest {
+
+    @Test
+    public void testRun() throws Exception {
+        assertEquals(Arrays.asList("Zwei", "Zeilen"),
+                     ExternalProcess.run(new String[]{"cat"}, Arrays.asList("Zwei", "Zeilen"), 5000));
+    }
+
+    @Test
+    public void testLineBuffered() throws Exception {
+        String[] command = ExternalProcess.lineBuffered("cat");
+        assertEquals(ExternalProcess.isLineBufferingAvailable() ? 3 : 1, command.length);
+        assertEquals("cat", command[command.length - 1]);
+        assertEquals(Arrays.asList("a"), ExternalProcess.run(command, Arrays.asList("a"), 5000));
+    }
+
+    @Test
+    public void testTimeout() throws Exception {
+        long start = System.currentTimeMillis();
+        try {
+            ExternalProcess.run(new String[]{"sleep", "10"}, Arrays.asList("a"), 200);
+            fail("timeout expected");
+        } catch (ProcessTimeoutException e) {
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+    @Test
+    public void testProgressDeadline() throws Exception {
+        // each step takes less than the deadline, all steps together take longer
+        String[] command = {"sh", "-c", "echo a; sleep 0.3; echo a; sleep 0.3; echo a; sleep 10"};
+        long start = System.currentTimeMillis();
+        try {
+            ExternalProcess.run(command, Arrays.asList("x"), 500, "a"::equals);
+            fail("timeout expected");
+        } catch (ProcessTimeoutException e) {
+            assertEquals(Arrays.asList("a", "a", "a"), e.getOutput());
+            assertTrue(System.currentTimeMillis() - start < 5000);
+        }
+    }
+
+    @Test
+    public void testTimeoutKillsProcessGroup() throws Exception {
+        // the pipeline stage 'sleep' is not a direct child of this process
+        String[] command = {"sh", "-c", "sleep 31.7 | cat"};
+        try {
+            ExternalProcess.run(command, Arrays.asList("a"), 200);
+            fail("timeout expected");
+        } catch (ProcessTimeoutException e) {
+            // expected
+        }
+        Thread.sleep(200);
+        Process pgrep = new ProcessBuilder("pgrep", "-f", "sleep 31.7").start();
+        assertEquals(1, pgrep.waitFor());
+    }
+
+    @Test
+    public void testQuarantine() {
+        Quarantine quarantine = new Quarantine(2);
+
+        quarantine.recordFailure("a");
+        assertFalse(quarantine.contains("a"));
+        quarantine.recordFailure("a");
+        assertTrue(quarantine.contains("a"));
+        assertFalse(quarantine.contains("b"));
+        assertEquals(1, quarantine.size());
+    }
+
+}
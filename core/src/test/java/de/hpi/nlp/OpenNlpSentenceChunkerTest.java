@@ -0,0 +1,133 @@
+package de.hpi.nlp;
+
+import de.hpi.nlp.chunking.ChunkedSentence;
+import de.hpi.nlp.chunking.OpenNlpSentenceChunker;
+import de.hpi.nlp.chunking.TreeTaggerSentenceChunker;
+import de.hpi.util.DefaultObjects;
+import edu.washington.cs.knowitall.commonlib.Range;
+import opennlp.tools.chunker.ChunkSample;
+import opennlp.tools.chunker.ChunkerFactory;
+import opennlp.tools.chunker.ChunkerME;
+import opennlp.tools.chunker.ChunkerModel;
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSSample;
+import opennlp.tools.postag.POSTaggerME;
+import opennlp.tools.util.CollectionObjectStream;
+import opennlp.tools.util.TrainingParameters;
+import opennlp.tools.util.model.ModelType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assume.assumeTrue;
+
+public class OpenNlpSentenceChunkerTest {
+
+    private static POSModel trainPosModel() throws Exception {
+        List<POSSample> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add(POSSample.parse("Der_ART Hund_NN bellt_VVFIN im_APPRART Garten_NN ._$."));
+            samples.add(POSSample.parse("Die_ART Katze_NN schläft_VVFIN ._$."));
+        }
+        return POSTaggerME.train("de", new CollectionObjectStream<>(samples), ModelType.MAXENT,
+                                 null, null, 0, 10);
+    }
+
+    private static ChunkerModel trainChunkerModel() throws Exception {
+        List<ChunkSample> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add(new ChunkSample(
+                new String[]{"Der", "Hund", "bellt", "im", "Garten", "."},
+                new String[]{"ART", "NN", "VVFIN", "APPRART", "NN", "$."},
+                new String[]{"B-NC", "I-NC", "B-VC", "B-PC", "I-PC", "O"}));
+            samples.add(new ChunkSample(
+                new String[]{"Die", "Katze", "schläft", "."},
+                new String[]{"ART", "NN", "VVFIN", "$."},
+                new String[]{"B-NC", "I-NC", "B-VC", "O"}));
+        }
+        TrainingParameters params = TrainingParameters.defaultParams();
+        params.put(TrainingParameters.CUTOFF_PARAM, "0");
+        params.put(TrainingParameters.ITERATIONS_PARAM, "10");
+        return ChunkerME.train("de", new CollectionObjectStream<>(samples), params,
+                               new ChunkerFactory());
+    }
+
+    @Test
+    public void testChunkSentence() throws Exception {
+        OpenNlpSentenceChunker chunker = new OpenNlpSentenceChunker(
+            null, new ThreadLocalPosTagger(trainPosModel()), trainChunkerModel());
+        String sent = "Der Hund bellt im Garten.";
+
+        ChunkedSentence expected = new ChunkedSentence(
+            new String[]{"Der", "Hund", "bellt", "im", "Garten", "."},
+            new String[]{"ART", "NN", "VVFIN", "APPRART", "NN", "$."},
+            new String[]{"B-NP", "I-NP", "B-VP", "B-PP", "I-PP", "O"});
+        ChunkedSentence actual = chunker.chunkSentence(sent);
+        assertEquals(expected, actual);
+        assertEquals(Arrays.asList(Range.fromInterval(0, 3), Range.fromInterval(3, 7),
+                                   Range.fromInterval(7, 12), Range.fromInterval(12, 14),
+                                   Range.fromInterval(14, 20), Range.fromInterval(20, 21)),
+                     actual.getOffsets());
+
+        // each thread has its own chunker
+        AtomicReference<ChunkedSentence> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            try {
+                other.set(chunker.chunkSentence(sent));
+            } catch (Exception e) {
+                // the sentence is missing
+            }
+        });
+        thread.start();
+        thread.join();
+        assertEquals(expected, other.get());
+    }
+
+    @Test
+    public void testOffsetsLikeTreeTagger() throws Exception {
+        OpenNlpSentenceChunker chunker = new OpenNlpSentenceChunker(
+            null, new ThreadLocalPosTagger(trainPosModel()), trainChunkerModel());
+        List<String> output = Arrays.asList(
+            "<NC>", "Die\tART\tdie", "Katze\tNN\tKatze", "</NC>",
+            "<VC>", "schläft\tVVFIN\tschlafen", "</VC>",
+            ".\t$.\t.");
+
+        ChunkedSentence openNlp = chunker.chunkSentence("Die Katze schläft.");
+        ChunkedSentence treeTagger = new TreeTaggerSentenceChunker(false, true).convert(output);
+        assertEquals(treeTagger, openNlp);
+        assertEquals(treeTagger.getOffsets(), openNlp.getOffsets());
+    }
+
+    @Test
+    public void testDefaultModels() throws Exception {
+        assumeTrue(getClass().getClassLoader().getResource(DefaultObjects.chunkerModelFile) != null);
+        OpenNlpSentenceChunker chunker = new OpenNlpSentenceChunker();
+
+        ChunkedSentence sent = chunker.chunkSentence(
+            "Die Commerzbank hat Standorte in mehr als 50 Ländern.");
+        assertFalse(sent.getNpChunkRanges().isEmpty());
+        assertFalse(sent.getPpChunkRanges().isEmpty());
+        int start = 0;
+        for (int i = 0; i < sent.getLength(); i++) {
+            String token = sent.getTokens().get(i);
+            assertEquals(Range.fromInterval(start, start + token.length()), sent.getOffsets().get(i));
+            start += token.length();
+        }
+    }
+
+    @Test
+    public void testConvertChunkTag() {
+        assertEquals("B-NP", OpenNlpSentenceChunker.convertChunkTag("B-NC"));
+        assertEquals("I-NP", OpenNlpSentenceChunker.convertChunkTag("I-NC"));
+        assertEquals("B-VP", OpenNlpSentenceChunker.convertChunkTag("B-VC"));
+        assertEquals("I-PP", OpenNlpSentenceChunker.convertChunkTag("I-PC"));
+        assertEquals("B-NP", OpenNlpSentenceChunker.convertChunkTag("B-NP"));
+        assertEquals("O", OpenNlpSentenceChunker.convertChunkTag("O"));
+    }
+
+}
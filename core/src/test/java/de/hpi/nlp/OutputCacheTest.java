@@ -0,0 +1,59 @@
+package de.hpi.nlp;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class OutputCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testPutAndGet() throws Exception {
+        OutputCache cache = new OutputCache(folder.getRoot());
+
+        cache.put("TreeTagger 3.2", "Das ist ein Satz .", Arrays.asList("<NC>", "Das\tPDS\tdie", "</NC>"));
+        cache.put("TreeTagger 3.2", "Leer", Collections.emptyList());
+
+        assertEquals(Arrays.asList("<NC>", "Das\tPDS\tdie", "</NC>"),
+                     cache.get("TreeTagger 3.2", "Das  ist ein Satz . "));
+        assertEquals(Collections.emptyList(), cache.get("TreeTagger 3.2", "Leer"));
+        assertNull(cache.get("TreeTagger 3.3", "Das ist ein Satz ."));
+        assertNull(cache.get("TreeTagger 3.2", "Ein anderer Satz ."));
+        assertEquals(2, cache.size());
+
+        cache.close();
+    }
+
+    @Test
+    public void testReopen() throws Exception {
+        OutputCache cache = new OutputCache(folder.getRoot());
+        for (int i = 0; i < 5000; i++) {
+            cache.put("ParZu", "Satz " + i, Arrays.asList("1\tSatz", String.valueOf(i)));
+        }
+        cache.close();
+
+        cache = new OutputCache(folder.getRoot());
+        assertEquals(5000, cache.size());
+        assertEquals(Arrays.asList("1\tSatz", "4711"), cache.get("ParZu", "Satz 4711"));
+        cache.close();
+
+        // the index is rebuilt from the segment file
+        assertTrue(new File(folder.getRoot(), "index.dat").delete());
+        cache = new OutputCache(folder.getRoot());
+        assertEquals(5000, cache.size());
+        assertEquals(new ArrayList<>(Arrays.asList("1\tSatz", "42")), cache.get("ParZu", "Satz 42"));
+        cache.close();
+    }
+
+}
@@ -0,0 +1,52 @@
+package de.hpi.nlp;
+
+import opennlp.tools.postag.POSModel;
+import opennlp.tools.postag.POSSample;
+import opennlp.tools.postag.POSTaggerME;
+import opennlp.tools.util.CollectionObjectStream;
+import opennlp.tools.util.model.ModelType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class ThreadLocalPosTaggerTest {
+
+    private static POSModel trainModel() throws Exception {
+        List<POSSample> samples = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            samples.add(POSSample.parse("Der_ART Hund_NN bellt_VVFIN ._$."));
+            samples.add(POSSample.parse("Die_ART Katze_NN schläft_VVFIN ._$."));
+        }
+        return POSTaggerME.train("de", new CollectionObjectStream<>(samples), ModelType.MAXENT,
+                                 null, null, 0, 10);
+    }
+
+    @Test
+    public void testTaggerPerThread() throws Exception {
+        ThreadLocalPosTagger tagger = new ThreadLocalPosTagger(trainModel());
+        String[] tokens = {"Der", "Hund", "schläft", "."};
+        String[] expected = new POSTaggerME(tagger.getModel()).tag(tokens);
+
+        POSTaggerME mainTagger = tagger.getTagger();
+        assertSame(mainTagger, tagger.getTagger());
+        assertArrayEquals(expected, tagger.tag(tokens));
+
+        AtomicReference<POSTaggerME> otherTagger = new AtomicReference<>();
+        AtomicReference<String[]> otherTags = new AtomicReference<>();
+        Thread thread = new Thread(() -> {
+            otherTagger.set(tagger.getTagger());
+            otherTags.set(ThreadLocalPosTagger.tag(tagger, tokens));
+        });
+        thread.start();
+        thread.join();
+
+        assertNotSame(mainTagger, otherTagger.get());
+        assertArrayEquals(expected, otherTags.get());
+    }
+}
@@ -3,11 +3,14 @@ package de.hpi.nlp;
 import org.junit.Test;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
 
 import de.hpi.nlp.chunking.ChunkedSentence;
 import de.hpi.nlp.chunking.TreeTaggerSentenceChunker;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class TreeTaggerSentenceChunkerTest {
 
@@ -34,4 +37,39 @@ public class TreeTaggerSentenceChunkerTest {
         assertEquals(expected, actual);
     }
 
+    @Test
+    public void testConvertWithTreeTaggerPosTags() throws IOException {
+        List<String> output = Arrays.asList(
+            "<NC>", "Die\tART\tdie", "Commerzbank\tNE\tCommerzbank", "</NC>",
+            "<VC>", "ist\tVAFIN\tsein", "</VC>",
+            "<NC>", "eine\tART\teine", "Bank\tNN\tBank", "</NC>",
+            ".\t$.\t.");
+
+        ChunkedSentence expected = new ChunkedSentence(
+            new String[]{"Die", "Commerzbank", "ist", "eine", "Bank", "."},
+            new String[]{"ART", "NE", "VAFIN", "ART", "NN", "$."},
+            new String[]{"B-NP", "I-NP", "B-VP", "B-NP", "I-NP", "O"}
+        );
+
+        TreeTaggerSentenceChunker chunker = new TreeTaggerSentenceChunker(false, true);
+        assertTrue(chunker.usesTreeTaggerPosTags());
+        assertEquals(expected, chunker.convert(output));
+    }
+
+    @Test
+    public void testConvertWithLemmas() throws IOException {
+        List<String> output = Arrays.asList(
+            "<VC>", "ist\tVAFIN\tsein", "</VC>",
+            "<PC>", "im\tAPPRART\tin", "Weg\tNN\tWeg|Wegen", "</PC>",
+            "Xyz\tNE\t<unknown>");
+
+        TreeTaggerSentenceChunker chunker = new TreeTaggerSentenceChunker(false, true);
+        chunker.setKeepLemmas(true);
+        ChunkedSentence sent = chunker.convert(output);
+
+        assertTrue(sent.hasLemmas());
+        assertEquals(Arrays.asList("sein", "in", "Weg", ChunkedSentence.UNKNOWN_LEMMA),
+                     sent.getLemmas());
+    }
+
 }
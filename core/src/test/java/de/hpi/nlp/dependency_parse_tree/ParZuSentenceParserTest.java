@@ -1,8 +1,16 @@
 package de.hpi.nlp.dependency_parse_tree;
 
+import de.hpi.nlp.ProcessTimeoutException;
+import de.hpi.nlp.chunking.ChunkedSentence;
+import de.hpi.nlp.chunking.SentenceChunker;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class ParZuSentenceParserTest {
 
@@ -19,4 +27,96 @@ public class ParZuSentenceParserTest {
         assertEquals("Franz Beckenbauer war z.B. ein Fußballspieler", tree.getTree().getChildren().get(0).toString());
     }
 
+    @Test
+    public void testParseSentences() {
+        // ParZu splits the first sentence into two trees and does not parse the second sentence
+        ParZuSentenceParser parser = new ParZuSentenceParser() {
+            @Override
+            protected List<String> parseLines(List<String> lines, long timeout) {
+                return new ArrayList<>(Arrays.asList(
+                    "1\tHallo\thallo\tITJ\tITJ\t_\t0\troot\t_\t_",
+                    "",
+                    "1\tDas\tdie\tPRO\tPDS\t_\t2\tsubj\t_\t_",
+                    "2\tgeht\tgehen\tV\tVVFIN\t_\t0\troot\t_\t_",
+                    "",
+                    "1\tPARZUSENTENCEMARKER0\tPARZUSENTENCEMARKER0\tN\tNE\t_\t0\troot\t_\t_",
+                    "2\t.\t.\t$.\t$.\t_\t0\troot\t_\t_",
+                    "",
+                    "1\tPARZUSENTENCEMARKER1\tPARZUSENTENCEMARKER1\tN\tNE\t_\t0\troot\t_\t_",
+                    "2\t.\t.\t$.\t$.\t_\t0\troot\t_\t_",
+                    "",
+                    "1\tEr\ter\tPRO\tPPER\t_\t2\tsubj\t_\t_",
+                    "2\tkommt\tkommen\tV\tVVFIN\t_\t0\troot\t_\t_",
+                    "",
+                    "1\tPARZUSENTENCEMARKER2\tPARZUSENTENCEMARKER2\tN\tNE\t_\t0\troot\t_\t_",
+                    "2\t.\t.\t$.\t$.\t_\t0\troot\t_\t_",
+                    ""));
+            }
+        };
+
+        List<List<DependencyParseTree>> trees = parser.parseSentences(
+            Arrays.asList("Hallo. Das geht.", "Unparsbar", "Er kommt."));
+
+        assertEquals(3, trees.size());
+        assertEquals(2, trees.get(0).size());
+        assertEquals("Das geht", trees.get(0).get(1).getTree().getChildren().get(0).toString());
+        assertEquals("Hallo. Das geht.", trees.get(0).get(1).getSentence());
+        assertTrue(trees.get(1).isEmpty());
+        assertEquals(1, trees.get(2).size());
+        assertEquals("Er kommt", trees.get(2).get(0).getTree().getChildren().get(0).toString());
+    }
+
+    @Test
+    public void testTimeoutWithoutProgress() {
+        // a batch times out before the first sentence is finished, single sentences are parsed
+        ParZuSentenceParser parser = new ParZuSentenceParser() {
+            @Override
+            protected List<String> parseLines(List<String> lines, long timeout) throws ProcessTimeoutException {
+                if (lines.stream().anyMatch(ParZuSentenceParser::isMarkerLine)) {
+                    throw new ProcessTimeoutException("timeout");
+                }
+                return new ArrayList<>(Arrays.asList(
+                    "1\tEr\ter\tPRO\tPPER\t_\t2\tsubj\t_\t_",
+                    "2\tkommt\tkommen\tV\tVVFIN\t_\t0\troot\t_\t_",
+                    ""));
+            }
+        };
+
+        for (int run = 0; run < 2; run++) {
+            List<List<DependencyParseTree>> trees = parser.parseSentences(
+                Arrays.asList("Er kommt.", "Er kommt auch."));
+            assertEquals(1, trees.get(0).size());
+            assertEquals(1, trees.get(1).size());
+        }
+        assertEquals(0, parser.getQuarantine().size());
+    }
+
+    @Test
+    public void testTaggedInput() throws Exception {
+        SentenceChunker tagger = sent -> {
+            try {
+                return new ChunkedSentence(
+                    new String[]{"Er", "kommt", "."},
+                    new String[]{"PPER", "VVFIN", "$."},
+                    new String[]{"B-NP", "B-VP", "O"});
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        };
+        List<String> input = new ArrayList<>();
+        ParZuSentenceParser parser = new ParZuSentenceParser(tagger) {
+            @Override
+            protected List<String> parseLines(List<String> lines, long timeout) {
+                input.addAll(lines);
+                return new ArrayList<>();
+            }
+        };
+
+        assertTrue(parser.isTagged());
+        parser.parseSentences(Arrays.asList("Er kommt."));
+        assertEquals(Arrays.asList(
+            "Er\tPPER", "kommt\tVVFIN", ".\t$.", "",
+            "PARZUSENTENCEMARKER0\tNE", ".\t$.", ""), input);
+    }
+
 }
@@ -0,0 +1,90 @@
+package de.hpi.nlp.dependency_parse_tree;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PooledParZuSentenceParserTest {
+
+    // Replaces the ParZu Python module: each sentence takes 0.2 seconds, a sentence with the
+    // token 'Langsam' takes 5 seconds. Each token becomes a node of the parse tree.
+    private static final String FAKE_PARZU =
+        "import time\n" +
+        "def process_arguments(commandline=False):\n" +
+        "    return {}\n" +
+        "class Parser:\n" +
+        "    def __init__(self, options):\n" +
+        "        pass\n" +
+        "    def main(self, text):\n" +
+        "        for block in text.split('\\n\\n'):\n" +
+        "            tokens = block.split()\n" +
+        "            if not tokens:\n" +
+        "                continue\n" +
+        "            time.sleep(5 if 'Langsam' in tokens else 0.2)\n" +
+        "            yield '\\n'.join('%d\\t%s\\t%s\\tN\\tNN\\t_\\t%d\\t%s\\t_\\t_'\n" +
+        "                             % (i + 1, t, t, 0 if i == 0 else 1, 'root' if i == 0 else 'app')\n" +
+        "                             for i, t in enumerate(tokens))\n";
+
+    private File parzuHome;
+    private PooledParZuSentenceParser parser;
+
+    @Before
+    public void setUp() throws IOException {
+        parzuHome = Files.createTempDirectory("parzu").toFile();
+        Files.write(new File(parzuHome, "parzu_class.py").toPath(),
+                    FAKE_PARZU.getBytes(StandardCharsets.UTF_8));
+        parser = new PooledParZuSentenceParser(1, null, parzuHome.getPath() + "/");
+        parser.setTimeout(1000);
+    }
+
+    @After
+    public void tearDown() {
+        parser.close();
+        for (File file : parzuHome.listFiles()) {
+            file.delete();
+        }
+        parzuHome.delete();
+    }
+
+    @Test
+    public void testDeadlinePerSentence() {
+        // the batch takes longer than the deadline, each sentence takes less
+        List<List<DependencyParseTree>> trees = parser.parseSentences(
+            Arrays.asList("Das geht.", "Er kommt.", "Sie bleibt.", "Es regnet."));
+
+        for (List<DependencyParseTree> sentTrees : trees) {
+            assertEquals(1, sentTrees.size());
+        }
+        assertEquals("Er kommt.", trees.get(1).get(0).getSentence());
+        assertEquals(0, parser.getQuarantine().size());
+    }
+
+    @Test
+    public void testSlowSentence() {
+        List<String> sents = Arrays.asList("Das geht.", "Er kommt.", "Langsam geht es.", "Es regnet.");
+
+        for (int run = 0; run < 2; run++) {
+            List<List<DependencyParseTree>> trees = parser.parseSentences(sents);
+
+            assertFalse(trees.get(0).isEmpty());
+            assertFalse(trees.get(1).isEmpty());
+            assertTrue(trees.get(2).isEmpty());
+            assertFalse(trees.get(3).isEmpty());
+        }
+        // only the slow sentence is charged
+        assertEquals(1, parser.getQuarantine().size());
+        assertTrue(parser.getQuarantine().contains("Langsam geht es."));
+    }
+
+}
@@ -0,0 +1,35 @@
+package de.hpi.nlp.dependency_parse_tree;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class TigerToParZuConverterTest {
+
+    @Test
+    public void testToConll() {
+        // Er hat das Haus in Berlin gekauft .
+        List<String> lines = TigerToParZuConverter.toConll(
+            new String[]{"Er", "hat", "das", "Haus", "in", "Berlin", "gekauft", "."},
+            new String[]{"er", "haben", "der", "Haus", "in", "Berlin", "kaufen", "."},
+            new String[]{"PPER", "VAFIN", "ART", "NN", "APPR", "NE", "VVPP", "$."},
+            null,
+            new int[]{2, 0, 4, 7, 7, 5, 2, 2},
+            new String[]{"SB", "--", "NK", "OA", "MO", "NK", "OC", "--"});
+
+        assertEquals("1\tEr\ter\tPRO\tPPER\t_\t2\tsubj\t_\t_", lines.get(0));
+        assertEquals("2\that\thaben\tV\tVAFIN\t_\t0\troot\t_\t_", lines.get(1));
+        assertEquals("3\tdas\tder\tART\tART\t_\t4\tdet\t_\t_", lines.get(2));
+        assertEquals("4\tHaus\tHaus\tN\tNN\t_\t7\tobja\t_\t_", lines.get(3));
+        assertEquals("5\tin\tin\tPREP\tAPPR\t_\t7\tpp\t_\t_", lines.get(4));
+        assertEquals("6\tBerlin\tBerlin\tN\tNE\t_\t5\tpn\t_\t_", lines.get(5));
+        assertEquals("7\tgekauft\tkaufen\tV\tVVPP\t_\t2\taux\t_\t_", lines.get(6));
+        assertEquals("8\t.\t.\t$.\t$.\t_\t0\troot\t_\t_", lines.get(7));
+
+        DependencyParseTree tree = DependencyParseTree.fromConll(lines).get(0);
+        assertEquals("Er hat das Haus in Berlin gekauft", tree.getTree().getChildren().get(0).toString());
+    }
+
+}
@@ -0,0 +1,50 @@
+package de.hpi.nlp.morphology;
+
+import de.hpi.util.DefaultObjects;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class CompiledMorphyTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testSameAsMorphy() throws Exception {
+        File file = folder.newFile("morphy.bin");
+        MorphyCompiler.compile(
+            DefaultObjects.getResourceAsStream(DefaultObjects.smallMorphologyLexiconFile), file);
+        CompiledMorphy compiled = new CompiledMorphy(file);
+        Morphy morphy = new Morphy(
+            DefaultObjects.getResourceAsStream(DefaultObjects.smallMorphologyLexiconFile));
+
+        List<String> forms = new ArrayList<>();
+        Morphy.read(DefaultObjects.getResourceAsStream(DefaultObjects.smallMorphologyLexiconFile),
+                    (form, subjects) -> forms.add(form));
+        for (String form : forms) {
+            assertEquals(form, morphy.contains(form), compiled.contains(form));
+            assertEquals(form, morphy.isNominative(form), compiled.isNominative(form));
+        }
+
+        assertFalse(compiled.contains("Xylophonspielerin"));
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testUnknownWord() throws Exception {
+        File file = folder.newFile("morphy.bin");
+        MorphyCompiler.compile(
+            DefaultObjects.getResourceAsStream(DefaultObjects.smallMorphologyLexiconFile), file);
+
+        new CompiledMorphy(file).isNominative("Xylophonspielerin");
+    }
+
+}
@@ -0,0 +1,73 @@
+package de.hpi.nlp.morphology;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class TransducerMorphologyTest {
+
+    // Haus<+NN><Nom>, Haus<+NN><Dat><Old> -> Hause, Haus<+NN><Gen> -> Hauses
+    private static final String TRANSDUCER =
+        "0\t1\tH\tH\n" +
+        "1\t2\ta\ta\n" +
+        "2\t3\tu\tu\n" +
+        "3\t4\ts\ts\n" +
+        "4\t5\t<+NN>\t<>\n" +
+        "5\t6\t<Nom>\t<>\n" +
+        "5\t7\t<Gen>\t<>\n" +
+        "5\t8\t<Dat>\t<>\n" +
+        "7\t9\t<>\te\n" +
+        "9\t6\t<>\ts\n" +
+        "8\t10\t<Old>\te\n" +
+        "8\t11\t<Nom>\t<>\n" +
+        "6\n" +
+        "10\n";
+
+    @Test
+    public void testIsNominative() throws Exception {
+        File file = File.createTempFile("transducer", ".bin");
+        file.deleteOnExit();
+        new TransducerCompiler().compile(
+            new ByteArrayInputStream(TRANSDUCER.getBytes(StandardCharsets.UTF_8)), file);
+        TransducerMorphology morphology = new TransducerMorphology(file);
+
+        // Nominative
+        assertTrue(morphology.isNominative("Haus"));
+
+        // No nominative
+        assertFalse(morphology.isNominative("Hauses"));
+        assertFalse(morphology.isNominative("Hause"));
+        assertFalse(morphology.isNominative("Maus"));
+        assertFalse(morphology.isNominative("Hau"));
+    }
+
+    @Test
+    public void testRejectBinaryTransducer() throws Exception {
+        File file = File.createTempFile("transducer", ".bin");
+        file.deleteOnExit();
+        // the header of a compact SFST transducer is not in the AT&T text format
+        byte[] compact = {'c', 0, 0, 0, 12, 0, 0, 0, '<', '>', 0, 'H'};
+        try {
+            new TransducerCompiler().compile(new ByteArrayInputStream(compact), file);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("fst-print"));
+        }
+
+        // the transducer is not compiled
+        try {
+            new TransducerMorphology(file);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("TransducerCompiler"));
+        }
+    }
+
+}
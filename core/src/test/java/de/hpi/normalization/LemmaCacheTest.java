@@ -0,0 +1,54 @@
+package de.hpi.normalization;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class LemmaCacheTest {
+
+    @Test
+    public void testGetAndPut() {
+        LemmaCache cache = new LemmaCache(10);
+        cache.put(Arrays.asList("liegt", "in"), new String[]{"liegen", "in"});
+        cache.put(Arrays.asList("ging"), new String[]{"gehen"});
+
+        assertArrayEquals(new String[]{"liegen", "in"}, cache.get(Arrays.asList("liegt", "in")));
+        assertArrayEquals(new String[]{"gehen"}, cache.get(Arrays.asList("ging")));
+        // the lemmas depend on the context, so that only whole phrases are cached
+        assertNull(cache.get(Arrays.asList("liegt")));
+        assertNull(cache.get(Arrays.asList("liegt", "an")));
+    }
+
+    @Test
+    public void testKeyIsCopied() {
+        LemmaCache cache = new LemmaCache(10);
+        List<String> tokens = new ArrayList<>(Arrays.asList("ging", "nach"));
+        cache.put(tokens, new String[]{"gehen", "nach"});
+        // the lemmatizer replaces the tokens by their lemmas after caching them
+        tokens.set(0, "gehen");
+
+        assertArrayEquals(new String[]{"gehen", "nach"}, cache.get(Arrays.asList("ging", "nach")));
+        assertNull(cache.get(tokens));
+    }
+
+    @Test
+    public void testEviction() {
+        LemmaCache cache = new LemmaCache(2);
+        cache.put(Arrays.asList("ging"), new String[]{"gehen"});
+        cache.put(Arrays.asList("kam"), new String[]{"kommen"});
+        // the least recently used entry is 'kam'
+        cache.get(Arrays.asList("ging"));
+        cache.put(Arrays.asList("sah"), new String[]{"sehen"});
+
+        assertEquals(2, cache.size());
+        assertArrayEquals(new String[]{"gehen"}, cache.get(Arrays.asList("ging")));
+        assertNull(cache.get(Arrays.asList("kam")));
+        assertArrayEquals(new String[]{"sehen"}, cache.get(Arrays.asList("sah")));
+    }
+}
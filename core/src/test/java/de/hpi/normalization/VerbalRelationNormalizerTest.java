@@ -2,7 +2,9 @@ package de.hpi.normalization;
 
 import edu.washington.cs.knowitall.commonlib.Range;
 import de.hpi.nlp.chunking.ChunkedSentence;
+import de.hpi.nlp.dependency_parse_tree.DependencyParseTree;
 import de.hpi.nlp.extraction.chunking.ChunkedRelationExtraction;
+import de.hpi.nlp.extraction.dependency_parse_tree.TreeExtraction;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -65,4 +67,32 @@ public class VerbalRelationNormalizerTest {
         assertNorm("sein NOUN für", "ist eine exzellente Quelle Friedrich für", "VAFIN ART ADJA NN NE APPR");
     }
 
+    @Test
+    public void testNormalizeWithLemmaLayer() throws Exception {
+        List<String> tokens = Arrays.asList("sind", "eingearbeitet", "in");
+        List<String> posTags = Arrays.asList("VAFIN", "VVPP", "APPR");
+        List<String> npChunkTags = Arrays.asList("O", "O", "O");
+
+        ChunkedSentence sent = new ChunkedSentence(tokens, posTags, npChunkTags);
+        sent.addLayer(ChunkedSentence.LEMMA_LAYER, Arrays.asList("sein", "einarbeiten", "in"));
+        ChunkedRelationExtraction extr = new ChunkedRelationExtraction(sent, new Range(0, 3));
+
+        assertEquals("einarbeiten in", normalizer.normalizeField(extr).toString());
+    }
+
+    @Test
+    public void testNormalizeWithNodeLemmas() throws Exception {
+        List<String> conll = Arrays.asList(
+            "1\tEr\ter\tPRO\tPPER\t_\t2\tsubj\t_\t_",
+            "2\tfuhr\tfahren\tV\tVVFIN\t_\t0\troot\t_\t_",
+            "3\tnach\tnach\tPREP\tAPPR\t_\t2\tpp\t_\t_",
+            "4\tBerlin\tBerlin\tN\tNE\t_\t3\tpn\t_\t_");
+        DependencyParseTree tree = DependencyParseTree.fromConll(conll).get(0);
+        TreeExtraction extr = new TreeExtraction(tree.getTree(), Arrays.asList(2, 3));
+
+        VerbalRelationNormalizer nodeLemmaNormalizer =
+            new VerbalRelationNormalizer(true, true, true, true);
+        assertEquals("fahren nach", nodeLemmaNormalizer.normalizeField(extr).toString());
+    }
+
 }
@@ -0,0 +1,22 @@
+package de.hpi.util;
+
+import de.hpi.extractor.RelationDictionary;
+import org.junit.Test;
+
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DefaultObjectsTest {
+
+    @Test
+    public void testSharedRelationDictionary() throws Exception {
+        DefaultObjects.preload(DefaultObjects.Model.RELATION_DICTIONARY);
+
+        RelationDictionary dictionary = DefaultObjects.getRelationDictionary(
+            DefaultObjects.relationDictionaryFile);
+        assertTrue(dictionary.size() > 0);
+        assertTrue(dictionary.getRelations(20).size() <= dictionary.size());
+        assertSame(dictionary, DefaultObjects.getRelationDictionary(
+            DefaultObjects.relationDictionaryFile));
+    }
+}
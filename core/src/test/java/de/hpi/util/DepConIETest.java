@@ -0,0 +1,69 @@
+package de.hpi.util;
+
+import de.hpi.nlp.dependency_parse_tree.DependencyParseTree;
+import de.hpi.nlp.dependency_parse_tree.DependencyParser;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class DepConIETest {
+
+    @Test
+    public void testSubmitWindow() throws Exception {
+        // the first sentence blocks the extraction, until the other sentences had time to be parsed
+        CountDownLatch release = new CountDownLatch(1);
+        Set<String> parsed = ConcurrentHashMap.newKeySet();
+        DependencyParser parser = new DependencyParser() {
+            @Override
+            public List<DependencyParseTree> parseSentence(String sent) {
+                parsed.add(sent);
+                if (sent.equals("0")) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return new ArrayList<>();
+            }
+
+            @Override
+            public int getConcurrency() {
+                return 2;
+            }
+        };
+        List<String> sentences = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            sentences.add(String.valueOf(i));
+        }
+
+        AtomicInteger parsedWhileBlocked = new AtomicInteger();
+        Thread releaser = new Thread(() -> {
+            try {
+                Thread.sleep(300);
+            } catch (InterruptedException e) {
+                // release now
+            }
+            parsedWhileBlocked.set(parsed.size());
+            release.countDown();
+        });
+        releaser.start();
+
+        try (DepConIE depConIE = new DepConIE(false, 1, true, true, false, parser)) {
+            assertEquals(100, depConIE.extractRelationsFromStrings(sentences).size());
+        }
+        releaser.join();
+        assertEquals(100, parsed.size());
+        // only a window of 4 sentences per parser process was submitted
+        assertTrue(parsedWhileBlocked.get() <= 8);
+    }
+
+}